@@ -0,0 +1,116 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Acceso a las clases del analizador desde un paquete con nombre.
+ * JMH exige que los benchmarks tengan paquete, pero el analizador vive en el
+ * paquete por defecto (que no se puede importar). Los MethodHandle son
+ * constantes estáticas, así que el JIT los enlaza directamente y no agregan costo medible.
+ */
+final class Analizador {
+    private static final MethodHandle NUEVO;
+    private static final MethodHandle ANALIZAR;
+    private static final MethodHandle PARSEAR;
+    private static final MethodHandle CARACTERES;
+    private static final MethodHandle TOKENIZAR;
+    private static final MethodHandle CLASIFICAR;
+    private static final MethodHandle RENDERIZAR;
+    private static final MethodHandle A_BYTES;
+    private static final MethodHandle DESDE_BYTES;
+    private static final MethodHandle A_JSON;
+    private static final MethodHandle NUEVO_INCREMENTAL;
+    private static final MethodHandle ANALIZAR_INCREMENTAL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> analizador = Class.forName("SintaxisAnalizer");
+            Class<?> lexer = Class.forName("Lexer");
+            NUEVO = lookup.findConstructor(analizador, MethodType.methodType(void.class, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            ANALIZAR = lookup.findVirtual(analizador, "analizar", MethodType.methodType(String.class, String.class))
+                    .asType(MethodType.methodType(String.class, Object.class, String.class));
+            PARSEAR = lookup.findVirtual(analizador, "parsear", MethodType.methodType(Class.forName("Ast$Programa"), String.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+            CARACTERES = lookup.findVirtual(analizador, "mostrarCaracterPorCaracter", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            CLASIFICAR = lookup.findVirtual(analizador, "clasificarCaracteres", MethodType.methodType(Class.forName("ReporteCaracteres")))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            TOKENIZAR = lookup.findStatic(lexer, "tokenizar", MethodType.methodType(Class.forName("TokenStream"), String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            Class<?> programa = Class.forName("Ast$Programa");
+            Class<?> serializador = Class.forName("SerializadorAst");
+            RENDERIZAR = lookup.findStatic(Class.forName("Ast"), "renderizar", MethodType.methodType(String.class, Class.forName("Ast$Nodo")))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            A_BYTES = lookup.findStatic(serializador, "aBytes", MethodType.methodType(byte[].class, programa))
+                    .asType(MethodType.methodType(byte[].class, Object.class));
+            DESDE_BYTES = lookup.findStatic(serializador, "desdeBytes", MethodType.methodType(programa, byte[].class))
+                    .asType(MethodType.methodType(Object.class, byte[].class));
+            A_JSON = lookup.findStatic(serializador, "aJson", MethodType.methodType(String.class, programa))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            Class<?> incremental = Class.forName("AnalisisIncremental");
+            NUEVO_INCREMENTAL = lookup.findConstructor(incremental, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            ANALIZAR_INCREMENTAL = lookup.findVirtual(incremental, "analizar", MethodType.methodType(programa, String.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Analizador() {
+    }
+
+    static Object nuevo(String codigo) throws Throwable {
+        return (Object) NUEVO.invokeExact(codigo);
+    }
+
+    static String analizar(String codigo) throws Throwable {
+        return (String) ANALIZAR.invokeExact(nuevo(codigo), codigo);
+    }
+
+    static Object parsear(String codigo) throws Throwable {
+        return (Object) PARSEAR.invokeExact(nuevo(codigo), codigo);
+    }
+
+    static String caracteres(String codigo) throws Throwable {
+        return (String) CARACTERES.invokeExact(nuevo(codigo));
+    }
+
+    static Object clasificar(String codigo) throws Throwable {
+        return (Object) CLASIFICAR.invokeExact(nuevo(codigo));
+    }
+
+    static Object tokenizar(String codigo) throws Throwable {
+        return (Object) TOKENIZAR.invokeExact(codigo);
+    }
+
+    // Texto del árbol de derivación de un Ast.Programa ya construido
+    static String renderizar(Object programa) throws Throwable {
+        return (String) RENDERIZAR.invokeExact(programa);
+    }
+
+    static byte[] aBytes(Object programa) throws Throwable {
+        return (byte[]) A_BYTES.invokeExact(programa);
+    }
+
+    static Object desdeBytes(byte[] datos) throws Throwable {
+        return (Object) DESDE_BYTES.invokeExact(datos);
+    }
+
+    static String aJson(Object programa) throws Throwable {
+        return (String) A_JSON.invokeExact(programa);
+    }
+
+    // Estado de re-análisis incremental (AnalisisIncremental) para un documento que se edita
+    static Object nuevoIncremental() throws Throwable {
+        return (Object) NUEVO_INCREMENTAL.invokeExact();
+    }
+
+    static Object analizarIncremental(Object incremental, String documento) throws Throwable {
+        return (Object) ANALIZAR_INCREMENTAL.invokeExact(incremental, documento);
+    }
+}
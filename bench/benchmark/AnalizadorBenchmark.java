@@ -0,0 +1,198 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks JMH de las rutas calientes del analizador.
+ *
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar AnalizadorBenchmark -prof gc
+ * java -jar target/benchmarks.jar -p tamano=grande -p profundidad=8 -prof gc
+ *
+ * El perfilador gc agrega la tasa de asignación (gc.alloc.rate.norm = bytes por operación).
+ * Costo de la instrumentación activa: -jvmArgsAppend -Danalizador.metricas=true
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalizadorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class EntradaJava {
+        // pequeno: ~50 líneas, mediano: ~5k líneas, grande: ~50k líneas
+        @Param({ "pequeno", "mediano", "grande" })
+        public String tamano;
+
+        @Param({ "2", "8" })
+        public int profundidad;
+
+        public String codigo;
+
+        @Setup
+        public void preparar() {
+            switch (tamano) {
+                case "pequeno": codigo = GeneradorEntradas.java(5, 3, profundidad, 42); break;
+                case "mediano": codigo = GeneradorEntradas.java(200, 300, profundidad, 42); break;
+                default: codigo = GeneradorEntradas.java(2000, 3000, profundidad, 42);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EntradaEspanol {
+        @Param({ "10", "1000", "10000" })
+        public int bloques;
+
+        @Param({ "2", "8" })
+        public int profundidad;
+
+        public String codigo;
+
+        @Setup
+        public void preparar() {
+            codigo = GeneradorEntradas.espanol(bloques, profundidad, 42);
+        }
+    }
+
+    // Anidamiento profundo: con el recorrido estructural cada nivel se visita una sola vez,
+    // así que el tiempo debe crecer en forma lineal con la profundidad
+    @State(Scope.Benchmark)
+    public static class EntradaProfunda {
+        @Param({ "4", "16", "64" })
+        public int profundidad;
+
+        public String codigo;
+
+        @Setup
+        public void preparar() {
+            codigo = GeneradorEntradas.java(0, 4, profundidad, 7);
+        }
+    }
+
+    // Documento mixto: clases Java y bloques de pseudocódigo alternados
+    @State(Scope.Benchmark)
+    public static class EntradaMixta {
+        @Param({ "10", "100", "1000" })
+        public int regiones;
+
+        public String codigo;
+
+        @Setup
+        public void preparar() {
+            codigo = GeneradorEntradas.mixto(regiones, 4, 42);
+        }
+    }
+
+    // Peor caso: una línea larga que obliga a los reconocedores a buscar algo que no llega
+    // (ver GeneradorEntradas.PATOLOGICOS y VerificadorLinealidad)
+    @State(Scope.Benchmark)
+    public static class EntradaPatologica {
+        @Param({ "declaracion-sin-punto-y-coma", "parentesis-sin-cerrar", "generico-sin-cerrar", "cabecera-de-clase-sin-llave" })
+        public String caso;
+
+        @Param({ "1000", "10000" })
+        public int repeticiones;
+
+        public String codigo;
+
+        @Setup
+        public void preparar() {
+            codigo = GeneradorEntradas.patologico(caso, repeticiones);
+        }
+    }
+
+    // Árbol ya construido y sus formas guardadas, para comparar persistir / recargar
+    @State(Scope.Benchmark)
+    public static class EntradaSerializada {
+        public Object programa;
+        public byte[] binario;
+
+        @Setup
+        public void preparar() throws Throwable {
+            String codigo = GeneradorEntradas.java(200, 300, 4, 42);
+            programa = Analizador.parsear(codigo);
+            binario = Analizador.aBytes(programa);
+        }
+    }
+
+    // Análisis completo con el texto del árbol de derivación
+    @Benchmark
+    public String analizarJava(EntradaJava entrada) throws Throwable {
+        return Analizador.analizar(entrada.codigo);
+    }
+
+    // Solo estructura (AST), sin generar texto
+    @Benchmark
+    public Object parsearJava(EntradaJava entrada) throws Throwable {
+        return Analizador.parsear(entrada.codigo);
+    }
+
+    @Benchmark
+    public Object tokenizarJava(EntradaJava entrada) throws Throwable {
+        return Analizador.tokenizar(entrada.codigo);
+    }
+
+    @Benchmark
+    public String analizarEspanol(EntradaEspanol entrada) throws Throwable {
+        return Analizador.analizar(entrada.codigo);
+    }
+
+    // Ejercita el recorrido estructural en cada nivel de anidamiento
+    @Benchmark
+    public String analizarProfundo(EntradaProfunda entrada) throws Throwable {
+        return Analizador.analizar(entrada.codigo);
+    }
+
+    // Regiones Java y de pseudocódigo alternadas; por encima del umbral se analizan en paralelo
+    @Benchmark
+    public Object parsearMixto(EntradaMixta entrada) throws Throwable {
+        return Analizador.parsear(entrada.codigo);
+    }
+
+    @Benchmark
+    public Object parsearPatologico(EntradaPatologica entrada) throws Throwable {
+        return Analizador.parsear(entrada.codigo);
+    }
+
+    // Persistir el árbol: formato binario contra el texto de derivación y JSON
+    @Benchmark
+    public byte[] serializarBinario(EntradaSerializada entrada) throws Throwable {
+        return Analizador.aBytes(entrada.programa);
+    }
+
+    @Benchmark
+    public String renderizarTexto(EntradaSerializada entrada) throws Throwable {
+        return Analizador.renderizar(entrada.programa);
+    }
+
+    @Benchmark
+    public String exportarJson(EntradaSerializada entrada) throws Throwable {
+        return Analizador.aJson(entrada.programa);
+    }
+
+    // Recargar el árbol guardado, en lugar de volver a analizar el código
+    @Benchmark
+    public Object leerBinario(EntradaSerializada entrada) throws Throwable {
+        return Analizador.desdeBytes(entrada.binario);
+    }
+
+    @Benchmark
+    public String caracteresJava(EntradaJava entrada) throws Throwable {
+        return Analizador.caracteres(entrada.codigo);
+    }
+
+    // Resultado estructurado del análisis de caracteres (sin texto)
+    @Benchmark
+    public Object clasificarJava(EntradaJava entrada) throws Throwable {
+        return Analizador.clasificar(entrada.codigo);
+    }
+
+    @Benchmark
+    public String caracteresEspanol(EntradaEspanol entrada) throws Throwable {
+        return Analizador.caracteres(entrada.codigo);
+    }
+}
@@ -0,0 +1,156 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * Generador de entradas sintéticas para los benchmarks.
+ * Produce código Java y pseudocódigo en español de tamaño y anidamiento controlados;
+ * con la misma semilla siempre genera el mismo texto.
+ */
+public final class GeneradorEntradas {
+    private GeneradorEntradas() {
+    }
+
+    // Clase Java con 'metodos' métodos; cada uno anida if/for/while hasta 'profundidad'
+    public static String java(int atributos, int metodos, int profundidad, long semilla) {
+        StringBuilder sb = new StringBuilder();
+        clase(sb, "Generada", atributos, metodos, profundidad, new Random(semilla));
+        return sb.toString();
+    }
+
+    // Documento mixto: 'regiones' veces una clase Java seguida de un bloque de pseudocódigo
+    public static String mixto(int regiones, int profundidad, long semilla) {
+        Random azar = new Random(semilla);
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < regiones; r++) {
+            clase(sb, "Generada" + r, 5, 10, profundidad, azar);
+            sb.append('\n');
+            for (int b = 0; b < 10; b++) {
+                anidarEspanol(sb, profundidad, 0, azar);
+                sb.append("x = x + ").append(b).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void clase(StringBuilder sb, String nombre, int atributos, int metodos, int profundidad, Random azar) {
+        sb.append("public class ").append(nombre).append(" {\n");
+        for (int i = 0; i < atributos; i++) {
+            sb.append("    private int campo").append(i).append(" = ").append(azar.nextInt(1000)).append(";\n");
+        }
+        for (int m = 0; m < metodos; m++) {
+            sb.append("\n    public int metodo").append(m).append("(int a, int b) {\n");
+            sb.append("        int total = a + b;\n");
+            anidar(sb, profundidad, 2, azar);
+            sb.append("        return total;\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+    }
+
+    private static void anidar(StringBuilder sb, int profundidad, int nivel, Random azar) {
+        if (profundidad == 0) {
+            return;
+        }
+        String sangria = "    ".repeat(nivel);
+        switch (azar.nextInt(3)) {
+            case 0:
+                sb.append(sangria).append("if (total > ").append(azar.nextInt(100)).append(") {\n");
+                sb.append(sangria).append("    int v").append(nivel).append(" = total * 2;\n");
+                anidar(sb, profundidad - 1, nivel + 1, azar);
+                sb.append(sangria).append("} else {\n");
+                sb.append(sangria).append("    total--;\n");
+                sb.append(sangria).append("}\n");
+                break;
+            case 1:
+                sb.append(sangria).append("for (int i").append(nivel).append(" = 0; i").append(nivel)
+                        .append(" < 10; i").append(nivel).append("++) {\n");
+                sb.append(sangria).append("    int w").append(nivel).append(" = i").append(nivel).append(";\n");
+                anidar(sb, profundidad - 1, nivel + 1, azar);
+                sb.append(sangria).append("}\n");
+                break;
+            default:
+                sb.append(sangria).append("while (total < ").append(azar.nextInt(100)).append(") {\n");
+                sb.append(sangria).append("    total++;\n");
+                anidar(sb, profundidad - 1, nivel + 1, azar);
+                sb.append(sangria).append("}\n");
+        }
+    }
+
+    // Entradas patológicas para VerificadorLinealidad: cada caso repite un fragmento que obliga a un
+    // reconocedor a buscar hacia adelante algo que no llega (';', ')', '>', '{'), en una sola línea
+    // como el código minificado o generado. Con búsquedas repetidas desde cada token el tiempo crece
+    // con el cuadrado de las repeticiones. Un caso puede traer además una línea inicial y un segundo
+    // fragmento que se repite después del primero: { nombre, fragmento [, segundo [, inicial]] }.
+    static final String[][] PATOLOGICOS = {
+            { "declaracion-sin-punto-y-coma", "int a = b + " },
+            { "asignaciones-encadenadas", "a b = " },
+            { "parentesis-sin-cerrar", "f a ( " },
+            { "if-sin-cerrar", "if ( " },
+            { "generico-sin-cerrar", "[ a < " },
+            { "cabecera-de-clase-sin-llave", "[ class A " },
+            { "llaves-sin-cerrar", "x {\n" },
+            { "llaves-sobrantes", "  }\n" },
+            // Cada '}' tiene menos sangría que las llaves abiertas y ninguna con su sangría: la
+            // recuperación busca en toda la pila la llave que cerraría
+            { "llaves-sin-pareja-por-sangria", "  x {\n", "}\n", " void m() {\n" },
+    };
+
+    public static String patologico(String caso, int repeticiones) {
+        for (String[] patologico : PATOLOGICOS) {
+            if (patologico[0].equals(caso)) {
+                String inicial = patologico.length > 3 ? patologico[3] : "";
+                String segundo = patologico.length > 2 ? patologico[2].repeat(repeticiones) : "";
+                return inicial + patologico[1].repeat(repeticiones) + segundo;
+            }
+        }
+        throw new IllegalArgumentException("Caso desconocido: " + caso);
+    }
+
+    // Sopa de tokens Java al azar (sin estructura), para buscar casos patológicos que no están en la lista
+    private static final String[] PIEZAS = {
+            "int ", "a ", "b ", "= ", "; ", "( ", ") ", "{ ", "} ", "< ", "> ", ", ", "[ ", "] ", "? ",
+            "class ", "if ", "for ", "while ", "else ", "public ", "static ", "void ", ". ", "new ",
+            "throws ", "\n", "@ ", "x1 ", "+ ", "\"s\" ", "si ", "entonces ", "finsi ", "mientras ", };
+
+    public static String sopa(int piezas, long semilla) {
+        Random azar = new Random(semilla);
+        StringBuilder sb = new StringBuilder(piezas * 4);
+        for (int i = 0; i < piezas; i++) {
+            sb.append(PIEZAS[azar.nextInt(PIEZAS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // Pseudocódigo: 'bloques' estructuras de primer nivel anidadas hasta 'profundidad'
+    public static String espanol(int bloques, int profundidad, long semilla) {
+        Random azar = new Random(semilla);
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < bloques; b++) {
+            anidarEspanol(sb, profundidad, 0, azar);
+            sb.append("x = x + ").append(b).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void anidarEspanol(StringBuilder sb, int profundidad, int nivel, Random azar) {
+        if (profundidad == 0) {
+            return;
+        }
+        String sangria = "   ".repeat(nivel);
+        if (azar.nextBoolean()) {
+            sb.append(sangria).append("si y == ").append(azar.nextInt(10)).append(" entonces\n");
+            sb.append(sangria).append("   y = y + 1\n");
+            anidarEspanol(sb, profundidad - 1, nivel + 1, azar);
+            sb.append(sangria).append("sino\n");
+            sb.append(sangria).append("   y = y - 1\n");
+            sb.append(sangria).append("finsi\n");
+        } else {
+            sb.append(sangria).append("mientras x < ").append(azar.nextInt(100)).append(" hacer\n");
+            sb.append(sangria).append("   x = x + 1\n");
+            anidarEspanol(sb, profundidad - 1, nivel + 1, azar);
+            sb.append(sangria).append("finmientras\n");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Regresión del análisis incremental: después de cada edición, el árbol que arma
+ * AnalisisIncremental debe ser el mismo que el del análisis completo del documento.
+ *
+ * Parte de documentos mixtos (clases Java y pseudocódigo, con asignaciones sueltas entre bloques
+ * en español) y aplica ediciones al azar: borra tramos cortos o inserta llaves, comentarios,
+ * líneas de pseudocódigo o declaraciones Java. Algunos análisis se cancelan a mitad de camino
+ * (se interrumpe el hilo que analiza): el siguiente debe seguir coincidiendo con el completo.
+ * Termina con error si algún árbol difiere.
+ *
+ * mvn -Pjmh package
+ * java -cp target/benchmarks.jar benchmark.VerificadorIncremental [ediciones]
+ */
+public final class VerificadorIncremental {
+    // Pseudocódigo con asignaciones sueltas entre bloques: todo es una sola región en español
+    private static final String PSEUDOCODIGO = "si a == 1 entonces\nb = 2\nfinsi\nx = 1\ny = 2\n"
+            + "mientras a < 3 hacer\na = a + 1\nfinmientras\n";
+    private static final String[] INSERCIONES = {
+        "}", "{", "\n", "x = 1\n", "int z = 3;\n", "si a entonces\n", "finsi\n",
+        "mientras b hacer\n", "finmientras\n", "/*", "*/", "//", "a", " ", ";"
+    };
+    // Cada tanto se vuelve al documento original para que las ediciones no lo desarmen del todo
+    private static final int REINICIO = 200;
+    // Una de cada CANCELACION ediciones se analiza primero en otro hilo, que se interrumpe
+    private static final int CANCELACION = 7;
+
+    private VerificadorIncremental() {
+    }
+
+    public static void main(String[] args) throws Throwable {
+        int ediciones = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        String[] documentos = {
+            PSEUDOCODIGO,
+            PSEUDOCODIGO + GeneradorEntradas.java(3, 4, 2, 1) + PSEUDOCODIGO,
+            GeneradorEntradas.mixto(3, 2, 7),
+        };
+        int fallos = 0;
+        for (int d = 0; d < documentos.length; d++) {
+            fallos += verificar("documento-" + (d + 1), documentos[d], ediciones, d + 1);
+        }
+        System.out.println(fallos == 0 ? "El análisis incremental coincide con el completo" : fallos + " árboles distintos");
+        if (fallos > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int verificar(String nombre, String original, int ediciones, long semilla) throws Throwable {
+        Random azar = new Random(semilla);
+        Object incremental = Analizador.nuevoIncremental();
+        String documento = original;
+        int fallos = 0;
+        for (int e = 0; e <= ediciones; e++) {
+            if (e > 0) {
+                documento = e % REINICIO == 0 ? original : editar(documento, azar);
+            }
+            String esperado = Analizador.renderizar(Analizador.parsear(documento));
+            if (azar.nextInt(CANCELACION) == 0) {
+                cancelar(incremental, documento, azar.nextInt(2000));
+            }
+            String obtenido = Analizador.renderizar(Analizador.analizarIncremental(incremental, documento));
+            if (!esperado.equals(obtenido)) {
+                if (fallos == 0) {
+                    System.out.println("FALLA " + nombre + " en la edición " + e + ":\n" + documento);
+                }
+                fallos++;
+            }
+        }
+        System.out.println((fallos == 0 ? "ok    " : "FALLA ") + nombre + ": " + ediciones + " ediciones, " + fallos + " distintos");
+        return fallos;
+    }
+
+    // Analiza en otro hilo y lo interrumpe después de 'micros' microsegundos, en cualquier punto
+    // del análisis; el estado del incremental debe quedar como antes de la llamada o como después
+    private static void cancelar(Object incremental, String documento, int micros) throws Throwable {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread hilo = new Thread(() -> {
+            try {
+                Analizador.analizarIncremental(incremental, documento);
+            } catch (CancellationException cancelado) {
+                // Esperado
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        hilo.start();
+        LockSupport.parkNanos(micros * 1000L);
+        hilo.interrupt();
+        hilo.join();
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
+    private static String editar(String documento, Random azar) {
+        int posicion = azar.nextInt(documento.length() + 1);
+        if (azar.nextBoolean() && posicion < documento.length()) {
+            int largo = Math.min(1 + azar.nextInt(5), documento.length() - posicion);
+            return documento.substring(0, posicion) + documento.substring(posicion + largo);
+        }
+        return documento.substring(0, posicion) + INSERCIONES[azar.nextInt(INSERCIONES.length)] + documento.substring(posicion);
+    }
+}
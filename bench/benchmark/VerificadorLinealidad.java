@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Regresión de peor caso: comprueba que el análisis de Java crece en forma lineal con la entrada.
+ *
+ * Para cada caso de {@link GeneradorEntradas#PATOLOGICOS} y para sopas de tokens al azar mide el
+ * análisis completo con N y con 8N repeticiones. Lineal, la razón entre los tiempos es cerca de 8;
+ * una búsqueda repetida desde cada token la lleva a 64. El caso falla si pasa de {@link #RAZON_MAXIMA}
+ * (margen para el ruido del JIT y del GC) o si el análisis lanza una excepción.
+ *
+ * mvn -Pjmh package
+ * java -cp target/benchmarks.jar benchmark.VerificadorLinealidad [semillas]
+ */
+public final class VerificadorLinealidad {
+    private static final int REPETICIONES = 10000;
+    private static final int FACTOR = 8;
+    private static final double RAZON_MAXIMA = 20;
+    private static final int MEDICIONES = 5;
+
+    private VerificadorLinealidad() {
+    }
+
+    public static void main(String[] args) throws Throwable {
+        int semillas = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int fallos = 0;
+        for (String[] caso : GeneradorEntradas.PATOLOGICOS) {
+            String nombre = caso[0];
+            fallos += verificar(nombre, n -> GeneradorEntradas.patologico(nombre, n)) ? 0 : 1;
+        }
+        for (int semilla = 1; semilla <= semillas; semilla++) {
+            long s = semilla;
+            fallos += verificar("sopa-" + semilla, n -> GeneradorEntradas.sopa(n, s)) ? 0 : 1;
+        }
+        System.out.println(fallos == 0 ? "Todos los casos son lineales" : fallos + " casos no lineales");
+        if (fallos > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean verificar(String nombre, IntFunction<String> generador) throws Throwable {
+        String chico = generador.apply(REPETICIONES);
+        String grande = generador.apply(REPETICIONES * FACTOR);
+        long tiempoChico;
+        long tiempoGrande;
+        try {
+            // Calentamiento: que el JIT compile las dos medidas por igual
+            medir(chico);
+            tiempoChico = medir(chico);
+            tiempoGrande = medir(grande);
+        } catch (RuntimeException | StackOverflowError e) {
+            System.out.println("FALLA " + nombre + ": " + e);
+            return false;
+        }
+        double razon = (double) tiempoGrande / Math.max(1, tiempoChico);
+        boolean lineal = razon <= RAZON_MAXIMA;
+        System.out.println(String.format(Locale.ROOT, "%s %s: %,d -> %,d caracteres, %.2f -> %.2f ms (x%.1f)",
+                lineal ? "ok   " : "FALLA", nombre, chico.length(), grande.length(), tiempoChico / 1e6, tiempoGrande / 1e6, razon));
+        return lineal;
+    }
+
+    // Mejor de varias mediciones (la menos afectada por el GC y la planificación)
+    private static long medir(String codigo) throws Throwable {
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            Analizador.parsear(codigo);
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,303 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Punto de entrada de línea de comandos (sin Swing) para analizar lotes de archivos.
+ *
+ * Uso: java AnalizerCli [--hilos N] [--salida DIR] [--ext .java,.psc,.txt] [--cache DIR]
+ *                        [--formato texto|binario|json] [--simbolos] [--buscar NOMBRE]... RUTA|GLOB...
+ *
+ * Cada archivo se analiza con su propia instancia de {@link SintaxisAnalizer} en un
+ * pool de hilos; por cada uno se escriben NOMBRE.arbol.txt (o .arbol.bin con el formato
+ * binario de {@link SerializadorAst}, o .arbol.json) y NOMBRE.caracteres.txt.
+ * Con --cache, los archivos cuyo contenido no cambió desde la ejecución anterior se
+ * toman del directorio de caché sin volver a analizarlos. Con --simbolos se escribe también
+ * NOMBRE.simbolos.txt (ver {@link TablaSimbolos}); con --buscar se arma el índice de símbolos de
+ * todos los archivos y se listan dónde se declara y dónde se asigna cada nombre pedido.
+ * Con -Danalizador.metricas=true
+ * el resumen agrega las métricas por fase (ver {@link Metricas}).
+ */
+public class AnalizerCli {
+    private static final String EXTENSIONES_POR_DEFECTO = ".java,.psc,.txt";
+
+    private int hilos = Runtime.getRuntime().availableProcessors();
+    private Path salida = Paths.get("analisis");
+    // Formato del árbol: "texto", "binario" o "json"
+    private String formato = "texto";
+    private final Set<String> extensiones = new HashSet<>();
+    private final List<String> rutas = new ArrayList<>();
+    // Solo en disco: cada archivo se pide una vez por ejecución
+    private CacheAnalisis cache;
+    private boolean simbolos;
+    private final List<String> buscados = new ArrayList<>();
+
+    private final AtomicLong archivosProcesados = new AtomicLong();
+    private final AtomicLong bytesProcesados = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+
+    public static void main(String[] args) {
+        AnalizerCli cli = new AnalizerCli();
+        try {
+            if (!cli.leerArgumentos(args)) {
+                imprimirUso();
+                System.exit(2);
+            }
+            System.exit(cli.ejecutar() == 0 ? 0 : 1);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            imprimirUso();
+            System.exit(2);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void imprimirUso() {
+        System.err.println("Uso: java AnalizerCli [--hilos N] [--salida DIR] [--ext " + EXTENSIONES_POR_DEFECTO + "] [--cache DIR]"
+                + " [--formato texto|binario|json] [--simbolos] [--buscar NOMBRE]... RUTA|GLOB...");
+    }
+
+    boolean leerArgumentos(String[] args) {
+        String ext = EXTENSIONES_POR_DEFECTO;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hilos":
+                    hilos = Integer.parseInt(valor(args, ++i, "--hilos"));
+                    if (hilos < 1) throw new IllegalArgumentException("--hilos debe ser al menos 1");
+                    break;
+                case "--salida":
+                    salida = Paths.get(valor(args, ++i, "--salida"));
+                    break;
+                case "--ext":
+                    ext = valor(args, ++i, "--ext");
+                    break;
+                case "--formato":
+                    formato = valor(args, ++i, "--formato");
+                    if (!formato.equals("texto") && !formato.equals("binario") && !formato.equals("json")) {
+                        throw new IllegalArgumentException("--formato debe ser texto, binario o json");
+                    }
+                    break;
+                case "--cache":
+                    cache = new CacheAnalisis(0, 0, Paths.get(valor(args, ++i, "--cache")));
+                    break;
+                case "--simbolos":
+                    simbolos = true;
+                    break;
+                case "--buscar":
+                    buscados.add(valor(args, ++i, "--buscar"));
+                    break;
+                case "-h":
+                case "--ayuda":
+                    return false;
+                default:
+                    rutas.add(args[i]);
+            }
+        }
+        for (String e : ext.split(",")) {
+            if (!e.isBlank()) extensiones.add(e.trim().toLowerCase(Locale.ROOT));
+        }
+        return !rutas.isEmpty();
+    }
+
+    private static String valor(String[] args, int i, String opcion) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Falta el valor de " + opcion);
+        }
+        return args[i];
+    }
+
+    // Retorna la cantidad de archivos con error
+    long ejecutar() throws IOException, InterruptedException {
+        List<Path> archivos = buscarArchivos();
+        if (archivos.isEmpty()) {
+            System.err.println("No se encontraron archivos para analizar.");
+            return 0;
+        }
+        Files.createDirectories(salida);
+
+        long inicio = System.nanoTime();
+        // Una tabla por archivo, en el orden de 'archivos' (solo con --buscar)
+        TablaSimbolos[] tablas = buscados.isEmpty() ? null : new TablaSimbolos[archivos.size()];
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>(archivos.size());
+            for (int i = 0; i < archivos.size(); i++) {
+                Path archivo = archivos.get(i);
+                int indice = i;
+                tareas.add(pool.submit(() -> analizarArchivo(archivo, tablas, indice)));
+            }
+            for (Future<?> tarea : tareas) {
+                try {
+                    tarea.get();
+                } catch (ExecutionException e) {
+                    errores.incrementAndGet();
+                    System.err.println("Error: " + e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        imprimirResumen(System.nanoTime() - inicio);
+        if (tablas != null) {
+            imprimirBusqueda(archivos, tablas);
+        }
+        return errores.get();
+    }
+
+    private void analizarArchivo(Path archivo, TablaSimbolos[] tablas, int indice) {
+        try {
+            byte[] bytes = Files.readAllBytes(archivo);
+            String codigo = new String(bytes, StandardCharsets.UTF_8);
+
+            ResultadoAnalisis resultado;
+            if (cache != null) {
+                resultado = cache.obtener(codigo, ModoAnalisis.AUTO);
+            } else {
+                // Una instancia por archivo: es la unidad de trabajo independiente
+                resultado = new SintaxisAnalizer(codigo).analizarCompleto();
+            }
+            String caracteres = resultado.getTextoCaracteres();
+
+            Path base = salida.resolve(nombreDeSalida(archivo));
+            switch (formato) {
+                case "binario":
+                    Files.write(Paths.get(base + ".arbol.bin"), SerializadorAst.aBytes(resultado.getPrograma()));
+                    break;
+                case "json":
+                    Files.write(Paths.get(base + ".arbol.json"),
+                            SerializadorAst.aJson(resultado.getPrograma()).getBytes(StandardCharsets.UTF_8));
+                    break;
+                default:
+                    Files.write(Paths.get(base + ".arbol.txt"), resultado.getTextoArbol().getBytes(StandardCharsets.UTF_8));
+            }
+            Files.write(Paths.get(base + ".caracteres.txt"), caracteres.getBytes(StandardCharsets.UTF_8));
+            if (simbolos) {
+                Files.write(Paths.get(base + ".simbolos.txt"), resultado.getSimbolos().renderizar().getBytes(StandardCharsets.UTF_8));
+            }
+            if (tablas != null) {
+                tablas[indice] = resultado.getSimbolos();
+            }
+
+            archivosProcesados.incrementAndGet();
+            bytesProcesados.addAndGet(bytes.length);
+        } catch (IOException | RuntimeException e) {
+            errores.incrementAndGet();
+            System.err.println("Error al analizar " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    // El índice se arma al final, en el orden de los archivos, para que la salida no dependa de los hilos
+    private void imprimirBusqueda(List<Path> archivos, TablaSimbolos[] tablas) {
+        IndiceSimbolos indice = new IndiceSimbolos();
+        for (int i = 0; i < tablas.length; i++) {
+            if (tablas[i] != null) {
+                indice.agregar(archivos.get(i).toString(), tablas[i]);
+            }
+        }
+        System.out.println(indice);
+        for (String nombre : buscados) {
+            System.out.println();
+            imprimirReferencias("Declaraciones de " + nombre, indice.declaraciones(nombre));
+            imprimirReferencias("Asignaciones de " + nombre, indice.asignaciones(nombre));
+        }
+    }
+
+    private static void imprimirReferencias(String titulo, List<IndiceSimbolos.Referencia> referencias) {
+        System.out.println(titulo + " (" + referencias.size() + "):");
+        for (IndiceSimbolos.Referencia referencia : referencias) {
+            System.out.println("  " + referencia);
+        }
+    }
+
+    // Evita colisiones entre archivos con el mismo nombre en carpetas distintas
+    private static String nombreDeSalida(Path archivo) {
+        Path absoluta = archivo.toAbsolutePath().normalize();
+        Path raiz = absoluta.getRoot();
+        String relativa = raiz != null ? raiz.relativize(absoluta).toString() : absoluta.toString();
+        return relativa.replace(absoluta.getFileSystem().getSeparator(), "_");
+    }
+
+    private List<Path> buscarArchivos() throws IOException {
+        Set<Path> encontrados = new LinkedHashSet<>();
+        for (String ruta : rutas) {
+            if (esGlob(ruta)) {
+                buscarPorGlob(ruta, encontrados);
+                continue;
+            }
+            Path path = Paths.get(ruta);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> arbol = Files.walk(path)) {
+                    arbol.filter(Files::isRegularFile).filter(this::tieneExtensionValida).forEach(encontrados::add);
+                }
+            } else if (Files.isRegularFile(path)) {
+                encontrados.add(path);
+            } else {
+                System.err.println("Advertencia: no existe " + ruta);
+            }
+        }
+        return new ArrayList<>(encontrados);
+    }
+
+    private void buscarPorGlob(String glob, Set<Path> encontrados) throws IOException {
+        // La base es la parte de la ruta anterior al primer comodín
+        int comodin = indiceComodin(glob);
+        int separador = Math.max(glob.lastIndexOf('/', comodin), glob.lastIndexOf('\\', comodin));
+        Path base = separador == -1 ? Paths.get(".") : Paths.get(glob.substring(0, separador + 1));
+        String patron = separador == -1 ? glob : glob.substring(separador + 1);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + patron);
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        try (Stream<Path> arbol = Files.walk(base)) {
+            arbol.filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(base.relativize(p)))
+                    .forEach(encontrados::add);
+        }
+    }
+
+    private static boolean esGlob(String ruta) {
+        return indiceComodin(ruta) != -1;
+    }
+
+    private static int indiceComodin(String ruta) {
+        for (int i = 0; i < ruta.length(); i++) {
+            char c = ruta.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') return i;
+        }
+        return -1;
+    }
+
+    private boolean tieneExtensionValida(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        int punto = nombre.lastIndexOf('.');
+        return punto != -1 && extensiones.contains(nombre.substring(punto));
+    }
+
+    private void imprimirResumen(long nanos) {
+        double segundos = Math.max(nanos / 1e9, 1e-9);
+        long archivos = archivosProcesados.get();
+        double megabytes = bytesProcesados.get() / (1024.0 * 1024.0);
+        System.out.println("Resumen del análisis");
+        System.out.println("====================");
+        System.out.printf(Locale.ROOT, "Archivos analizados: %d (errores: %d)%n", archivos, errores.get());
+        System.out.printf(Locale.ROOT, "Datos: %.2f MB en %.3f s con %d hilos%n", megabytes, segundos, hilos);
+        System.out.printf(Locale.ROOT, "Rendimiento: %.1f archivos/s, %.2f MB/s%n", archivos / segundos, megabytes / segundos);
+        if (cache != null) {
+            System.out.println(cache);
+        }
+        if (Metricas.ACTIVAS) {
+            System.out.print(Metricas.instantanea());
+        }
+        System.out.println("Salida: " + salida.toAbsolutePath());
+    }
+}
@@ -1,25 +1,80 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
 public class AnalizerController {
-    private SintaxisAnalizer modelo;
+    // Estado del análisis incremental del editor (reutiliza subárboles entre ediciones)
+    private final AnalisisIncremental incremental = new AnalisisIncremental();
+    // Resultados por contenido: un texto ya analizado no se vuelve a analizar. Cada análisis crea
+    // su propio SintaxisAnalizer porque la vista llama al controlador desde hilos distintos a la vez
+    private final CacheAnalisis cache;
+
+    public AnalizerController() {
+        this(new CacheAnalisis(64, 256L * 1024 * 1024));
+    }
 
-    public AnalizerController(SintaxisAnalizer modelo) {
-        this.modelo = modelo;
+    public AnalizerController(CacheAnalisis cache) {
+        this.cache = cache;
     }
 
     // Método para iniciar el análisis y retornar el resultado
     public String iniciarAnalisis(String codigoFuente) {
-        modelo = new SintaxisAnalizer(codigoFuente);
-        return modelo.analizar(codigoFuente);
+        return obtenerResultado(codigoFuente).getTextoArbol();
     }
     
     // Método para obtener el análisis carácter por carácter
     public String obtenerAnalisisCaracteres(String codigoFuente) {
-        modelo = new SintaxisAnalizer(codigoFuente);
-        return modelo.mostrarCaracterPorCaracter();
+        return obtenerResultado(codigoFuente).getTextoCaracteres();
+    }
+    
+    // Método para obtener el análisis de caracteres agrupado por secuencias
+    public String obtenerAnalisisCaracteresAgrupado(String codigoFuente) {
+        return obtenerResultado(codigoFuente).getTextoAgrupado();
     }
     
     // Método para obtener el árbol de derivación
     public String obtenerArbolDerivacion(String codigoFuente) {
-        modelo = new SintaxisAnalizer(codigoFuente);
-        return modelo.analizar(codigoFuente);
+        return obtenerResultado(codigoFuente).getTextoArbol();
+    }
+
+    // Método para analizar una sola vez y compartir el resultado entre ambos paneles
+    public ResultadoAnalisis obtenerResultado(String codigoFuente) {
+        return obtenerResultado(codigoFuente, ModoAnalisis.AUTO);
+    }
+
+    public ResultadoAnalisis obtenerResultado(String codigoFuente, ModoAnalisis modo) {
+        return cache.obtener(codigoFuente == null ? "" : codigoFuente, modo);
+    }
+
+    // Igual que obtenerResultado, con el árbol del análisis incremental del editor
+    public ResultadoAnalisis obtenerResultadoIncremental(String documento) {
+        return new ResultadoAnalisis(documento, ModoAnalisis.AUTO, incremental.analizar(documento), null,
+                ClasificadorCaracteres.clasificarTodo(documento));
+    }
+
+    // Método para re-analizar el documento del editor reutilizando lo que no cambió
+    public String obtenerArbolIncremental(String documento) {
+        return Ast.renderizar(incremental.analizar(documento));
+    }
+
+    public CacheAnalisis getCache() {
+        return cache;
+    }
+
+    public AnalisisIncremental getIncremental() {
+        return incremental;
+    }
+
+    // Método para analizar un archivo grande en flujo (mapeado en memoria).
+    // Entrega cada nodo de primer nivel en cuanto su construcción termina.
+    public long analizarArchivo(Path archivo, Charset charset, Consumer<Ast.Nodo> receptor) throws IOException {
+        return AnalizadorFlujo.analizar(archivo, charset, receptor);
+    }
+
+    // Método para analizar en flujo desde cualquier Reader
+    public long analizarFlujo(Reader lector, Consumer<Ast.Nodo> receptor) throws IOException {
+        return AnalizadorFlujo.analizar(lector, receptor);
     }
 }
@@ -0,0 +1,380 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio HTTP local sobre {@link AnalizerController}, para llamar al analizador desde otras
+ * herramientas sin arrancar una JVM (ni Swing) por cada análisis.
+ *
+ * Uso: java AnalizerServidor [--puerto 8080] [--host 127.0.0.1]
+ *
+ * POST /analizar?modo=auto|java|espanol&formato=texto|json|binario
+ *      El cuerpo es el código (UTF-8); la respuesta es el árbol en el formato pedido.
+ * POST /caracteres?modo=...      Reporte carácter por carácter.
+ * POST /lote?modo=...            Un fragmento por línea, cada uno como cadena JSON ("...").
+ *      La respuesta es NDJSON en flujo: una línea {"indice":i,"arbol":{...}} por fragmento,
+ *      en el orden recibido y escrita en cuanto ese fragmento está listo.
+ * GET  /salud, GET /metricas
+ *
+ * Los manejadores corren en hilos virtuales si la JVM los tiene (Java 21+) y si no en un pool
+ * de hilos que se reutilizan. Los fragmentos de un lote se analizan en paralelo, y la caché del
+ * controlador comparte los resultados entre pedidos.
+ */
+public class AnalizerServidor {
+    // Cuerpo máximo de un pedido: protege la memoria del proceso
+    static final int MAXIMO_CUERPO = 64 * 1024 * 1024;
+
+    private final AnalizerController controlador;
+    private final HttpServer servidor;
+    private final ExecutorService manejadores;
+    // Donde se analizan los fragmentos de un lote (no los hilos de los manejadores, que esperan)
+    private final Executor trabajo;
+
+    public AnalizerServidor(AnalizerController controlador, InetSocketAddress direccion) throws IOException {
+        this.controlador = controlador;
+        ExecutorService virtuales = hilosVirtuales();
+        this.manejadores = virtuales != null ? virtuales : Executors.newCachedThreadPool(new FabricaDeHilos());
+        this.trabajo = virtuales != null ? virtuales : ForkJoinPool.commonPool();
+        this.servidor = HttpServer.create(direccion, 1024);
+        servidor.setExecutor(manejadores);
+        servidor.createContext("/analizar", intercambio -> atender(intercambio, this::analizar));
+        servidor.createContext("/caracteres", intercambio -> atender(intercambio, this::caracteres));
+        servidor.createContext("/lote", intercambio -> atender(intercambio, this::lote));
+        servidor.createContext("/salud", intercambio -> atender(intercambio, this::salud));
+        servidor.createContext("/metricas", intercambio -> atender(intercambio, this::metricas));
+    }
+
+    public static void main(String[] args) {
+        int puerto = 8080;
+        String host = "127.0.0.1";
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--puerto":
+                        puerto = Integer.parseInt(valor(args, ++i, "--puerto"));
+                        break;
+                    case "--host":
+                        host = valor(args, ++i, "--host");
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+                }
+            }
+            AnalizerServidor servidor = new AnalizerServidor(new AnalizerController(), new InetSocketAddress(host, puerto));
+            servidor.iniciar();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> servidor.detener(1)));
+            System.out.println("Analizador escuchando en http://" + host + ":" + servidor.getPuerto());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Uso: java AnalizerServidor [--puerto 8080] [--host 127.0.0.1]");
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static String valor(String[] args, int i, String opcion) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Falta el valor de " + opcion);
+        }
+        return args[i];
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    // Espera hasta 'segundos' a que terminen los pedidos en curso
+    public void detener(int segundos) {
+        servidor.stop(segundos);
+        manejadores.shutdown();
+        try {
+            manejadores.awaitTermination(segundos, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Puerto real (útil con el puerto 0, que elige uno libre)
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() si existe; se busca por reflexión porque el
+    // proyecto compila para Java 17
+    private static ExecutorService hilosVirtuales() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static final class FabricaDeHilos implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable tarea) {
+            Thread hilo = new Thread(tarea, "analizador-http-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }
+    }
+
+    // ============== Manejadores ==============
+
+    private interface Manejador {
+        void atender(HttpExchange intercambio) throws IOException;
+    }
+
+    // Pedido inválido: se responde 400 (o el código indicado) con el mensaje
+    private static final class PedidoInvalido extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int codigo;
+
+        PedidoInvalido(int codigo, String mensaje) {
+            super(mensaje);
+            this.codigo = codigo;
+        }
+    }
+
+    private static void atender(HttpExchange intercambio, Manejador manejador) {
+        try {
+            try {
+                manejador.atender(intercambio);
+            } catch (PedidoInvalido e) {
+                responder(intercambio, e.codigo, "text/plain; charset=utf-8", (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                responder(intercambio, 500, "text/plain; charset=utf-8", ("Error: " + e + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión: no hay a quién responder
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    private void analizar(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "POST");
+        Map<String, String> parametros = parametros(intercambio);
+        ModoAnalisis modo = modo(parametros);
+        String formato = parametros.getOrDefault("formato", "texto");
+        String codigo = new String(leerCuerpo(intercambio), StandardCharsets.UTF_8);
+        ResultadoAnalisis resultado = controlador.obtenerResultado(codigo, modo);
+        switch (formato) {
+            case "texto":
+                responder(intercambio, 200, "text/plain; charset=utf-8", resultado.getTextoArbol().getBytes(StandardCharsets.UTF_8));
+                break;
+            case "json":
+                responder(intercambio, 200, "application/json", SerializadorAst.aJson(resultado.getPrograma()).getBytes(StandardCharsets.UTF_8));
+                break;
+            case "binario":
+                responder(intercambio, 200, "application/octet-stream", SerializadorAst.aBytes(resultado.getPrograma()));
+                break;
+            default:
+                throw new PedidoInvalido(400, "formato debe ser texto, json o binario");
+        }
+    }
+
+    private void caracteres(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "POST");
+        ModoAnalisis modo = modo(parametros(intercambio));
+        String codigo = new String(leerCuerpo(intercambio), StandardCharsets.UTF_8);
+        String reporte = controlador.obtenerResultado(codigo, modo).getTextoCaracteres();
+        responder(intercambio, 200, "text/plain; charset=utf-8", reporte.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Los fragmentos se leen todos antes de responder (una línea inválida se rechaza entera)
+    // y se analizan en paralelo; cada resultado se escribe, en orden, en cuanto está listo
+    private void lote(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "POST");
+        ModoAnalisis modo = modo(parametros(intercambio));
+        List<String> fragmentos = new ArrayList<>();
+        BufferedReader lector = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(leerCuerpo(intercambio)), StandardCharsets.UTF_8));
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            if (!linea.isBlank()) {
+                fragmentos.add(leerCadenaJson(linea.trim(), fragmentos.size() + 1));
+            }
+        }
+
+        List<CompletableFuture<ResultadoAnalisis>> resultados = new ArrayList<>(fragmentos.size());
+        for (String fragmento : fragmentos) {
+            resultados.add(CompletableFuture.supplyAsync(() -> controlador.obtenerResultado(fragmento, modo), trabajo));
+        }
+        intercambio.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        // Largo 0: respuesta por partes (chunked), el cliente la lee mientras se escribe
+        intercambio.sendResponseHeaders(200, 0);
+        try (Writer salida = new OutputStreamWriter(intercambio.getResponseBody(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < resultados.size(); i++) {
+                salida.write("{\"indice\":" + i);
+                try {
+                    salida.write(",\"arbol\":");
+                    SerializadorAst.escribirJson(resultados.get(i).get().getPrograma(), salida);
+                } catch (ExecutionException e) {
+                    salida.write(",\"error\":");
+                    SerializadorAst.cadenaJson(String.valueOf(e.getCause()), salida);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Lote interrumpido", e);
+                }
+                salida.write("}\n");
+                salida.flush();
+            }
+        } catch (IOException e) {
+            // El cliente se fue: no tiene sentido terminar los análisis pendientes
+            for (CompletableFuture<ResultadoAnalisis> resultado : resultados) {
+                resultado.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    private void salud(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        responder(intercambio, 200, "text/plain; charset=utf-8", "ok\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void metricas(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        String texto = Metricas.instantanea() + controlador.getCache().toString() + "\n";
+        responder(intercambio, 200, "text/plain; charset=utf-8", texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ============== Utilidades ==============
+
+    private static void exigirMetodo(HttpExchange intercambio, String metodo) {
+        if (!intercambio.getRequestMethod().equals(metodo)) {
+            intercambio.getResponseHeaders().set("Allow", metodo);
+            throw new PedidoInvalido(405, "Método no permitido: use " + metodo);
+        }
+    }
+
+    private static void responder(HttpExchange intercambio, int codigo, String tipo, byte[] cuerpo) throws IOException {
+        Headers cabeceras = intercambio.getResponseHeaders();
+        cabeceras.set("Content-Type", tipo);
+        intercambio.sendResponseHeaders(codigo, cuerpo.length == 0 ? -1 : cuerpo.length);
+        if (cuerpo.length > 0) {
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        }
+    }
+
+    private static byte[] leerCuerpo(HttpExchange intercambio) throws IOException {
+        String largo = intercambio.getRequestHeaders().getFirst("Content-Length");
+        if (largo != null && Long.parseLong(largo) > MAXIMO_CUERPO) {
+            throw new PedidoInvalido(413, "El cuerpo supera " + MAXIMO_CUERPO + " bytes");
+        }
+        InputStream entrada = intercambio.getRequestBody();
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream(largo != null ? (int) Long.parseLong(largo) : 8192);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = entrada.read(buffer)) != -1) {
+            if (cuerpo.size() + n > MAXIMO_CUERPO) {
+                throw new PedidoInvalido(413, "El cuerpo supera " + MAXIMO_CUERPO + " bytes");
+            }
+            cuerpo.write(buffer, 0, n);
+        }
+        return cuerpo.toByteArray();
+    }
+
+    private static Map<String, String> parametros(HttpExchange intercambio) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = intercambio.getRequestURI().getRawQuery();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual == -1 ? par : par.substring(0, igual);
+            String valor = igual == -1 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static ModoAnalisis modo(Map<String, String> parametros) {
+        String modo = parametros.getOrDefault("modo", "auto");
+        try {
+            return ModoAnalisis.valueOf(modo.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new PedidoInvalido(400, "modo debe ser auto, java o espanol");
+        }
+    }
+
+    // Una línea del lote: una cadena JSON completa ("..." con sus escapes)
+    static String leerCadenaJson(String linea, int numero) {
+        int n = linea.length();
+        if (n < 2 || linea.charAt(0) != '"' || linea.charAt(n - 1) != '"') {
+            throw new PedidoInvalido(400, "Línea " + numero + ": se esperaba una cadena JSON");
+        }
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 1; i < n - 1; i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                throw new PedidoInvalido(400, "Línea " + numero + ": comilla sin escapar en la posición " + i);
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (++i >= n - 1) {
+                throw new PedidoInvalido(400, "Línea " + numero + ": escape incompleto");
+            }
+            char e = linea.charAt(i);
+            switch (e) {
+                case '"': case '\\': case '/': sb.append(e); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (i + 4 >= n) {
+                        throw new PedidoInvalido(400, "Línea " + numero + ": escape \\u incompleto");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(linea.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException ex) {
+                        throw new PedidoInvalido(400, "Línea " + numero + ": escape \\u inválido");
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw new PedidoInvalido(400, "Línea " + numero + ": escape inválido \\" + e);
+            }
+        }
+        return sb.toString();
+    }
+}
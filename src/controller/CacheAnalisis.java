@@ -0,0 +1,264 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+
+/**
+ * Caché de resultados de análisis direccionada por contenido.
+ *
+ * La clave es el SHA-256 del código fuente más el modo de análisis. En memoria se desaloja
+ * por LRU cuando se supera la cantidad de entradas o el tamaño estimado en bytes: el de lo que
+ * cada resultado retiene (ver ResultadoAnalisis.bytesEstimados), que se vuelve a estimar en
+ * cada acierto porque los textos de los paneles se generan después de guardarlo. Si se indica
+ * un directorio, cada resultado nuevo también se guarda ahí (código y árbol en formato
+ * binario), de modo que otra ejecución lo encuentra sin volver a analizar.
+ */
+public class CacheAnalisis {
+    // 2: el árbol se guarda en el formato binario de SerializadorAst en lugar de texto
+    // 3: sin el reporte de caracteres (unos 36 bytes por carácter); se rearma del código si se pide
+    private static final int VERSION_ARCHIVO = 3;
+
+    private final int maximoEntradas;
+    private final long maximoBytes;
+    private final Path directorio;
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long aciertos;
+    private long aciertosDisco;
+    private long fallos;
+    private long desalojos;
+
+    // Un resultado y los bytes con que está contado en 'bytes'
+    private static final class Entrada {
+        final ResultadoAnalisis resultado;
+        long bytes;
+
+        Entrada(ResultadoAnalisis resultado, long bytes) {
+            this.resultado = resultado;
+            this.bytes = bytes;
+        }
+    }
+
+    public CacheAnalisis(int maximoEntradas, long maximoBytes) {
+        this(maximoEntradas, maximoBytes, null);
+    }
+
+    // directorio == null: solo en memoria
+    public CacheAnalisis(int maximoEntradas, long maximoBytes, Path directorio) {
+        if (maximoEntradas < 0 || maximoBytes < 0) {
+            throw new IllegalArgumentException("Los límites de la caché no pueden ser negativos");
+        }
+        this.maximoEntradas = maximoEntradas;
+        this.maximoBytes = maximoBytes;
+        this.directorio = directorio;
+    }
+
+    // Retorna el resultado guardado o lo calcula (fuera del candado) y lo guarda
+    public ResultadoAnalisis obtener(String codigo, ModoAnalisis modo) {
+        String clave = clave(codigo, modo);
+        synchronized (this) {
+            Entrada entrada = entradas.get(clave);
+            // Se compara el texto para que una colisión de hash nunca entregue otro análisis
+            if (entrada != null && entrada.resultado.getCodigo().equals(codigo)) {
+                aciertos++;
+                long tamano = entrada.resultado.bytesEstimados();
+                bytes += tamano - entrada.bytes;
+                entrada.bytes = tamano;
+                desalojar();
+                return entrada.resultado;
+            }
+        }
+
+        ResultadoAnalisis resultado = leerDeDisco(clave, codigo, modo);
+        boolean deDisco = resultado != null;
+        if (!deDisco) {
+            resultado = new SintaxisAnalizer(codigo, modo).analizarCompleto();
+            escribirEnDisco(clave, resultado);
+        }
+        // En memoria queda el árbol en columnas, no los nodos ni los tokens. Una caché sin entradas
+        // en memoria (la de solo disco del CLI) no retiene nada: quien pidió el resultado usa el
+        // árbol completo, y la tabla de símbolos sale de él sin volver a analizar
+        if (maximoEntradas > 0) {
+            resultado.compactar();
+        }
+        synchronized (this) {
+            if (deDisco) {
+                aciertosDisco++;
+            } else {
+                fallos++;
+            }
+            guardar(clave, resultado);
+        }
+        return resultado;
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        bytes = 0;
+    }
+
+    public synchronized int getEntradas() {
+        return entradas.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getAciertosDisco() {
+        return aciertosDisco;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getDesalojos() {
+        return desalojos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Caché: %d entradas, %d bytes, %d aciertos (%d de disco), %d fallos, %d desalojos",
+                entradas.size(), bytes, aciertos, aciertosDisco, fallos, desalojos);
+    }
+
+    private void guardar(String clave, ResultadoAnalisis resultado) {
+        long tamano = resultado.bytesEstimados();
+        if (tamano > maximoBytes || maximoEntradas == 0) {
+            // Más grande que toda la caché: no desalojar todo por una sola entrada
+            return;
+        }
+        Entrada anterior = entradas.put(clave, new Entrada(resultado, tamano));
+        if (anterior != null) {
+            bytes -= anterior.bytes;
+        }
+        bytes += tamano;
+        desalojar();
+    }
+
+    // Desaloja las menos usadas hasta volver a los límites (si la recién usada sola los supera, también ella)
+    private void desalojar() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while ((entradas.size() > maximoEntradas || bytes > maximoBytes) && it.hasNext()) {
+            bytes -= it.next().bytes;
+            it.remove();
+            desalojos++;
+        }
+    }
+
+    static String clave(String codigo, ModoAnalisis modo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(codigo.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2 + 8);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.append('-').append(modo.name().toLowerCase(Locale.ROOT)).toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM debe incluir SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ============== Persistencia ==============
+    // Formato: versión, modo, código (largo + UTF-8) y árbol (largo + binario de SerializadorAst).
+    // Un archivo de otra versión se vuelve a generar.
+
+    private ResultadoAnalisis leerDeDisco(String clave, String codigo, ModoAnalisis modo) {
+        if (directorio == null) {
+            return null;
+        }
+        Path archivo = directorio.resolve(clave + ".cache");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (in.readInt() != VERSION_ARCHIVO || !in.readUTF().equals(modo.name())) {
+                return null;
+            }
+            // Ningún bloque puede ser más largo que el archivo: un largo dañado no reserva memoria
+            long tamano = Files.size(archivo);
+            String guardado = leerTexto(in, tamano);
+            if (!guardado.equals(codigo)) {
+                return null;
+            }
+            Ast.Programa programa = SerializadorAst.desdeBytes(leerBloque(in, tamano));
+            return ResultadoAnalisis.desdeDisco(codigo, modo, programa);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // Archivo dañado o incompleto: se vuelve a analizar y se sobrescribe
+            System.err.println("Advertencia: no se pudo leer " + archivo + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void escribirEnDisco(String clave, ResultadoAnalisis resultado) {
+        if (directorio == null) {
+            return;
+        }
+        Path archivo = directorio.resolve(clave + ".cache");
+        Path temporal = null;
+        try {
+            Files.createDirectories(directorio);
+            // Escribir en un temporal y renombrar: un lector concurrente nunca ve el archivo a medias
+            temporal = Files.createTempFile(directorio, clave, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                out.writeInt(VERSION_ARCHIVO);
+                out.writeUTF(resultado.getModo().name());
+                escribirTexto(out, resultado.getCodigo());
+                escribirBloque(out, SerializadorAst.aBytes(resultado.getPrograma()));
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temporal = null;
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudo guardar " + archivo + ": " + e.getMessage());
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    // Queda un .tmp huérfano; no afecta a las lecturas
+                }
+            }
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        escribirBloque(out, texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void escribirBloque(DataOutputStream out, byte[] datos) throws IOException {
+        out.writeInt(datos.length);
+        out.write(datos);
+    }
+
+    private static String leerTexto(DataInputStream in, long maximo) throws IOException {
+        return new String(leerBloque(in, maximo), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] leerBloque(DataInputStream in, long maximo) throws IOException {
+        int largo = in.readInt();
+        if (largo < 0 || largo > maximo) {
+            throw new IOException("largo inválido: " + largo);
+        }
+        byte[] datos = new byte[largo];
+        in.readFully(datos);
+        return datos;
+    }
+}
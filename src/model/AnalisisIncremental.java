@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-análisis incremental de un documento que se edita.
+ *
+ * El documento se divide en las mismas regiones de primer nivel que usa el análisis completo
+ * (ver SintaxisAnalizer.dividirEnRegiones): cada clase o método Java es una región, y los
+ * segmentos sin llaves consecutivos forman una sola región con su propia detección de lenguaje.
+ * Dividir es un recorrido por caracteres, sin tokens, y se hace sobre todo el documento; lo
+ * costoso es analizar, y eso se hace solo con las regiones que cambiaron. Ante una nueva versión
+ * se calcula la zona modificada (prefijo y sufijo comunes con la versión anterior): una región
+ * que cae entera antes de la zona, o entera después (desplazada), y que coincide con una región
+ * anterior en extensión y lenguaje, se reutiliza tal cual. Así el árbol es siempre el mismo que
+ * el del análisis completo.
+ *
+ * Las regiones se analizan sobre el documento, sin copiar su texto: los nodos apuntan a la
+ * versión del documento en que se analizaron. Para no retener muchas versiones, las regiones
+ * de las versiones que cubren menos texto se vuelven a analizar sobre la actual.
+ */
+public class AnalisisIncremental {
+    // Versiones del documento que pueden quedar retenidas por los nodos reutilizados
+    private static final int MAXIMO_VERSIONES = 4;
+
+    private static final class Segmento {
+        final int inicio;
+        final int fin;
+        final boolean espanol;
+        // Número de la versión del documento sobre la que se analizó
+        final int version;
+        final List<Ast.Nodo> nodos;
+        // Posiciones relativas al inicio del segmento: no cambian al desplazarlo
+        final List<Diagnostico> diagnosticos;
+
+        Segmento(int inicio, int fin, boolean espanol, int version, List<Ast.Nodo> nodos, List<Diagnostico> diagnosticos) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.espanol = espanol;
+            this.version = version;
+            this.nodos = nodos;
+            this.diagnosticos = diagnosticos;
+        }
+
+        Segmento desplazado(int delta) {
+            return delta == 0 ? this : new Segmento(inicio + delta, fin + delta, espanol, version, nodos, diagnosticos);
+        }
+    }
+
+    private String anterior;
+    private List<Segmento> segmentos = new ArrayList<>();
+    private int version;
+    private int reutilizados;
+    private int reanalizados;
+
+    public synchronized Ast.Programa analizar(String documento) {
+        reutilizados = 0;
+        reanalizados = 0;
+        version++;
+        List<Segmento> nuevos = actualizar(documento);
+        limitarVersiones(nuevos, documento);
+        // El estado se reemplaza recién aquí, junto: si el análisis se cancela antes, los
+        // segmentos siguen correspondiendo al documento anterior
+        segmentos = nuevos;
+        anterior = documento;
+
+        Ast.Programa programa = new Ast.Programa();
+        List<Diagnostico> diagnosticos = new ArrayList<>();
+        for (Segmento segmento : segmentos) {
+            programa.getElementos().addAll(segmento.nodos);
+            for (Diagnostico diagnostico : segmento.diagnosticos) {
+                diagnosticos.add(diagnostico.desplazado(segmento.inicio));
+            }
+        }
+        programa.setDiagnosticos(Diagnostico.ubicar(documento, diagnosticos));
+        return programa;
+    }
+
+    // Segmentos reutilizados / vueltos a analizar en la última llamada
+    public synchronized int getReutilizados() {
+        return reutilizados;
+    }
+
+    public synchronized int getReanalizados() {
+        return reanalizados;
+    }
+
+    public synchronized void reiniciar() {
+        anterior = null;
+        segmentos = new ArrayList<>();
+    }
+
+    private List<Segmento> actualizar(String documento) {
+        // Zona sin cambios: [0, prefijo) y [largoNuevo - sufijo, largoNuevo)
+        int prefijo = 0;
+        int sufijo = 0;
+        int delta = 0;
+        if (anterior != null) {
+            int largoAnterior = anterior.length();
+            int largoNuevo = documento.length();
+            int limite = Math.min(largoAnterior, largoNuevo);
+            while (prefijo < limite && anterior.charAt(prefijo) == documento.charAt(prefijo)) prefijo++;
+            while (sufijo < limite - prefijo
+                    && anterior.charAt(largoAnterior - 1 - sufijo) == documento.charAt(largoNuevo - 1 - sufijo)) sufijo++;
+            delta = largoNuevo - largoAnterior;
+        }
+        int inicioSufijo = documento.length() - sufijo;
+
+        List<SintaxisAnalizer.Region> regiones = SintaxisAnalizer.dividirEnRegiones(documento);
+        List<Segmento> nuevos = new ArrayList<>(regiones.size());
+        for (SintaxisAnalizer.Region region : regiones) {
+            Segmento segmento = null;
+            if (anterior != null && region.fin <= prefijo) {
+                segmento = buscarPrevio(region, 0);
+            } else if (anterior != null && region.inicio >= inicioSufijo) {
+                segmento = buscarPrevio(region, delta);
+            }
+            if (segmento != null) {
+                reutilizados++;
+            } else {
+                segmento = analizarSegmento(documento, region);
+            }
+            nuevos.add(segmento);
+        }
+        return nuevos;
+    }
+
+    // El segmento anterior con la misma extensión (desplazada en 'delta') y el mismo lenguaje, o null
+    private Segmento buscarPrevio(SintaxisAnalizer.Region region, int delta) {
+        int k = buscarInicio(segmentos, region.inicio - delta);
+        if (k == -1) {
+            return null;
+        }
+        Segmento previo = segmentos.get(k);
+        return previo.fin == region.fin - delta && previo.espanol == region.espanol ? previo.desplazado(delta) : null;
+    }
+
+    // Índice del segmento anterior que empieza exactamente en 'inicio', o -1
+    private static int buscarInicio(List<Segmento> previos, int inicio) {
+        int bajo = 0;
+        int alto = previos.size() - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int valor = previos.get(medio).inicio;
+            if (valor < inicio) {
+                bajo = medio + 1;
+            } else if (valor > inicio) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    // Si los segmentos retienen más de MAXIMO_VERSIONES versiones del documento, se vuelven a
+    // analizar sobre la actual los de la versión más barata (la que cubre menos caracteres): la
+    // versión que tiene casi todo el documento queda, y cada edición cuesta una región más
+    private void limitarVersiones(List<Segmento> segmentos, String documento) {
+        Map<Integer, Integer> caracteres = new HashMap<>();
+        for (Segmento segmento : segmentos) {
+            caracteres.merge(segmento.version, segmento.fin - segmento.inicio, Integer::sum);
+        }
+        while (caracteres.size() > MAXIMO_VERSIONES) {
+            int masBarata = -1;
+            for (Map.Entry<Integer, Integer> entrada : caracteres.entrySet()) {
+                if (entrada.getKey() != version
+                        && (masBarata == -1 || entrada.getValue() < caracteres.get(masBarata))) {
+                    masBarata = entrada.getKey();
+                }
+            }
+            caracteres.remove(masBarata);
+            for (int k = 0; k < segmentos.size(); k++) {
+                Segmento segmento = segmentos.get(k);
+                if (segmento.version == masBarata) {
+                    Segmento nuevo = analizarSegmento(documento, new SintaxisAnalizer.Region(segmento.inicio, segmento.fin, segmento.espanol));
+                    caracteres.merge(version, nuevo.fin - nuevo.inicio, Integer::sum);
+                    segmentos.set(k, nuevo);
+                    reutilizados--;
+                }
+            }
+        }
+    }
+
+    private Segmento analizarSegmento(String documento, SintaxisAnalizer.Region region) {
+        SintaxisAnalizer.verificarCancelacion();
+        SintaxisAnalizer.analizarRegion(documento, region);
+        List<Diagnostico> diagnosticos = new ArrayList<>(region.diagnosticos.size());
+        for (Diagnostico diagnostico : region.diagnosticos) {
+            diagnosticos.add(diagnostico.desplazado(-region.inicio));
+        }
+        reanalizados++;
+        return new Segmento(region.inicio, region.fin, region.espanol, version, region.nodos, diagnosticos);
+    }
+}
@@ -0,0 +1,398 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Analizador del subconjunto en español dirigido por la gramática {@link #GLC}.
+ *
+ * Cada línea se clasifica una sola vez como un terminal (según su primera palabra) y un
+ * analizador predictivo LL(1) con pila explícita las consume con la tabla de
+ * {@link GramaticaLL1}; las acciones semánticas (#si, #cerrar, ...) arman el AST.
+ * Recuperación: una palabra de cierre fuera de lugar se toma como sentencia del bloque
+ * actual y un bloque sin cerrar termina con el texto, igual que el analizador anterior;
+ * ambos casos (y las líneas de bloque mal formadas) se reportan como {@link Diagnostico},
+ * con lo esperado según los conjuntos FIRST/FOLLOW de la gramática.
+ * Para agregar una construcción basta una regla en {@link #GLC} y, si hace falta, su acción.
+ */
+final class AnalizadorEspanol {
+    // Terminales: clase de cada línea
+    static final byte SI = 0;
+    static final byte SINO = 1;
+    static final byte FINSI = 2;
+    static final byte MIENTRAS = 3;
+    static final byte FINMIENTRAS = 4;
+    static final byte PARA = 5;
+    static final byte FINPARA = 6;
+    static final byte REPETIR = 7;
+    static final byte HASTA = 8;
+    static final byte ASIGNACION = 9;
+    static final byte SENTENCIA = 10;
+    static final byte VACIA = 11;
+    static final byte FIN = 12;
+
+    private static final String[] TERMINALES = {
+        "SI", "SINO", "FINSI", "MIENTRAS", "FINMIENTRAS", "PARA", "FINPARA", "REPETIR", "HASTA",
+        "ASIGNACION", "SENTENCIA", "VACIA", "FIN"
+    };
+    // Cómo se nombra cada terminal en los diagnósticos
+    private static final String[] DESCRIPCIONES = {
+        "'si'", "'sino'", "'finsi'", "'mientras'", "'finmientras'", "'para'", "'finpara'", "'repetir'", "'hasta'",
+        "una asignación", "una sentencia", "una línea vacía", Diagnostico.FIN_DEL_CODIGO
+    };
+
+    // Acciones semánticas, en el orden de los índices de abajo
+    private static final String[] ACCIONES = {
+        "#si", "#sino", "#mientras", "#para", "#repetir", "#hasta", "#asignacion", "#sentencia", "#vacia", "#cerrar"
+    };
+    private static final int A_SI = 0, A_SINO = 1, A_MIENTRAS = 2, A_PARA = 3, A_REPETIR = 4, A_HASTA = 5,
+            A_ASIGNACION = 6, A_SENTENCIA = 7, A_VACIA = 8, A_CERRAR = 9;
+
+    // GLC del subconjunto en español
+    static final String GLC =
+            "programa -> lista FIN\n" +
+            "lista    -> elemento lista | ε\n" +
+            "elemento -> si | mientras | para | repetir\n" +
+            "elemento -> ASIGNACION #asignacion | SENTENCIA #sentencia | VACIA #vacia\n" +
+            "si       -> SI #si lista sino FINSI #cerrar\n" +
+            "sino     -> SINO #sino lista | ε\n" +
+            "mientras -> MIENTRAS #mientras lista FINMIENTRAS #cerrar\n" +
+            "para     -> PARA #para lista FINPARA #cerrar\n" +
+            "repetir  -> REPETIR #repetir lista HASTA #hasta #cerrar\n";
+
+    private static final GramaticaLL1 GRAMATICA = new GramaticaLL1(GLC, TERMINALES, ACCIONES);
+    // No terminal que se reanuda tras una línea fuera de lugar
+    private static final int LISTA = GRAMATICA.codigo("lista");
+
+    // Clase de línea de cada palabra clave (por índice de PalabrasClave); -1 si no abre ni cierra nada
+    private static final byte[] CLASE_POR_PALABRA = new byte[PalabrasClave.cantidad()];
+    // Ninguna palabra clave del modo español es más larga que esta
+    private static final int LARGO_MAXIMO_CLAVE = "finmientras".length();
+
+    static {
+        Arrays.fill(CLASE_POR_PALABRA, (byte) -1);
+        CLASE_POR_PALABRA[PalabrasClave.indice("si")] = SI;
+        CLASE_POR_PALABRA[PalabrasClave.indice("sino")] = SINO;
+        CLASE_POR_PALABRA[PalabrasClave.indice("finsi")] = FINSI;
+        CLASE_POR_PALABRA[PalabrasClave.indice("mientras")] = MIENTRAS;
+        CLASE_POR_PALABRA[PalabrasClave.indice("finmientras")] = FINMIENTRAS;
+        CLASE_POR_PALABRA[PalabrasClave.indice("para")] = PARA;
+        CLASE_POR_PALABRA[PalabrasClave.indice("finpara")] = FINPARA;
+        CLASE_POR_PALABRA[PalabrasClave.indice("repetir")] = REPETIR;
+        CLASE_POR_PALABRA[PalabrasClave.indice("hasta")] = HASTA;
+    }
+
+    private List<FragmentoFuente> lineas;
+    private byte[] clases;
+    // Lista donde se agregan los nodos del bloque actual, y los nodos con bloque abiertos
+    private final Deque<List<Ast.Nodo>> destinos = new ArrayDeque<>();
+    private final Deque<Ast.Nodo> abiertos = new ArrayDeque<>();
+    // Línea que abrió cada bloque abierto (para reportar los que quedan sin cerrar)
+    private final Deque<FragmentoFuente> lineasAbiertas = new ArrayDeque<>();
+    private final List<Diagnostico> diagnosticos;
+
+    AnalizadorEspanol(List<Diagnostico> diagnosticos) {
+        this.diagnosticos = diagnosticos;
+    }
+
+    void analizar(String codigo, List<Ast.Nodo> destino) {
+        analizar(codigo, 0, codigo.length(), destino);
+    }
+
+    // Analiza solo codigo[desde, hasta): una región de pseudocódigo dentro de un documento mixto
+    void analizar(String codigo, int desde, int hasta, List<Ast.Nodo> destino) {
+        long inicio = Metricas.inicio();
+        lineas = dividirEnLineas(codigo, desde, hasta);
+        int n = lineas.size();
+        Metricas.sumar(Metricas.Contador.LINEAS_ESPANOL, n);
+        clases = new byte[n + 1];
+        for (int i = 0; i < n; i++) {
+            clases[i] = clasificar(lineas.get(i));
+        }
+        clases[n] = FIN;
+        destinos.push(destino);
+
+        int[] pila = new int[32];
+        int tope = 0;
+        pila[tope++] = GRAMATICA.simboloInicial();
+        int i = 0;
+        // Línea del último terminal consumido, o null si ese terminal faltaba
+        FragmentoFuente consumida = null;
+        while (tope > 0) {
+            int simbolo = pila[--tope];
+            byte actual = clases[i];
+            if (GRAMATICA.esAccion(simbolo)) {
+                ejecutar(GRAMATICA.accion(simbolo), consumida);
+                continue;
+            }
+            if (GRAMATICA.esTerminal(simbolo)) {
+                if (simbolo == actual) {
+                    if (actual != FIN) {
+                        SintaxisAnalizer.verificarCancelacion();
+                        consumida = lineas.get(i++);
+                    }
+                } else if (actual == FIN) {
+                    // Cierre faltante: el bloque termina con el texto
+                    FragmentoFuente apertura = lineasAbiertas.peek();
+                    diagnosticos.add(new Diagnostico(apertura.getInicio(), "Bloque " + primeraPalabra(apertura) + " sin cerrar",
+                            DESCRIPCIONES[simbolo], Diagnostico.FIN_DEL_CODIGO));
+                    consumida = null;
+                } else {
+                    if (tope + 2 > pila.length) pila = Arrays.copyOf(pila, pila.length * 2);
+                    pila[tope++] = simbolo;
+                    pila[tope++] = LISTA;
+                    fueraDeLugar(lineas.get(i++), actual, simbolo == FIN ? null : DESCRIPCIONES[simbolo]);
+                }
+                continue;
+            }
+            int produccion = GRAMATICA.prediccion(simbolo, actual);
+            if (produccion != -1) {
+                int[] derecho = GRAMATICA.ladoDerecho(produccion);
+                if (tope + derecho.length > pila.length) {
+                    pila = Arrays.copyOf(pila, Math.max(pila.length * 2, tope + derecho.length));
+                }
+                for (int k = derecho.length - 1; k >= 0; k--) {
+                    pila[tope++] = derecho[k];
+                }
+            } else if (actual != FIN) {
+                if (tope + 2 > pila.length) pila = Arrays.copyOf(pila, pila.length * 2);
+                pila[tope++] = simbolo;
+                pila[tope++] = LISTA;
+                fueraDeLugar(lineas.get(i++), actual, esperados(simbolo));
+            }
+            // Con FIN y sin predicción el no terminal se da por vacío
+        }
+        Metricas.registrar(Metricas.Fase.ESPANOL, inicio);
+    }
+
+    // Una línea de cierre que no corresponde al bloque actual queda como sentencia (y se reporta)
+    private void fueraDeLugar(FragmentoFuente linea, byte clase, String esperado) {
+        String mensaje = esperado == null
+                ? DESCRIPCIONES[clase] + " sin bloque que cerrar"
+                : DESCRIPCIONES[clase] + " fuera de lugar";
+        diagnosticos.add(new Diagnostico(linea.getInicio(), mensaje, esperado, esperado == null ? null : DESCRIPCIONES[clase]));
+        destinos.peek().add(new Ast.Sentencia(linea));
+    }
+
+    // Terminales que podían seguir al expandir 'noTerminal': FIRST, más FOLLOW si es anulable
+    private static String esperados(int noTerminal) {
+        List<String> nombres = new ArrayList<>(GRAMATICA.primeros(noTerminal));
+        if (GRAMATICA.esAnulable(noTerminal)) {
+            for (String nombre : GRAMATICA.siguientes(noTerminal)) {
+                if (!nombres.contains(nombre)) nombres.add(nombre);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < nombres.size(); k++) {
+            if (k > 0) sb.append(k == nombres.size() - 1 ? " o " : ", ");
+            sb.append(DESCRIPCIONES[GRAMATICA.codigo(nombres.get(k))]);
+        }
+        return sb.toString();
+    }
+
+    // "'si'", "'mientras'", ... según la primera palabra de la línea
+    private static String primeraPalabra(FragmentoFuente linea) {
+        int fin = 0;
+        while (fin < linea.length() && linea.charAt(fin) != ' ') fin++;
+        return "'" + linea.subSequence(0, fin).toString().toLowerCase(Locale.ROOT) + "'";
+    }
+
+    // Falta la palabra que cierra la cabecera ("si x entonces", "mientras x hacer") o la condición
+    private void verificarCabecera(FragmentoFuente linea, String palabra, CharSequence condicion) {
+        if (linea.ultimoIndiceDe(palabra) == -1) {
+            diagnosticos.add(new Diagnostico(linea.getFin(), "Falta '" + palabra + "' al final de " + primeraPalabra(linea),
+                    "'" + palabra + "'", "fin de la línea"));
+        } else if (condicion.length() == 0) {
+            diagnosticos.add(new Diagnostico(linea.getInicio(), "Condición vacía en " + primeraPalabra(linea),
+                    "una condición", "'" + palabra + "'"));
+        }
+    }
+
+    private void ejecutar(int accion, FragmentoFuente linea) {
+        switch (accion) {
+            case A_SI: {
+                // Formato esperado: si CONDICION entonces
+                Ast.Si si = new Ast.Si(extraerEntrePalabras(linea, "si", "entonces").trim());
+                verificarCabecera(linea, "entonces", si.getCondicion());
+                abrir(si, si.getEntonces(), linea);
+                break;
+            }
+            case A_SINO:
+                destinos.pop();
+                destinos.push(((Ast.Si) abiertos.peek()).abrirSino());
+                break;
+            case A_MIENTRAS: {
+                // Formato esperado: mientras CONDICION hacer
+                Ast.Mientras mientras = new Ast.Mientras(extraerEntrePalabras(linea, "mientras", "hacer").trim());
+                verificarCabecera(linea, "hacer", mientras.getCondicion());
+                abrir(mientras, mientras.getBloque(), linea);
+                break;
+            }
+            case A_PARA: {
+                // Formato esperado: para CONTROL [hacer]
+                Ast.Para para = new Ast.Para(textoDespuesDe(linea, "para", "hacer"));
+                abrir(para, para.getBloque(), linea);
+                break;
+            }
+            case A_REPETIR: {
+                Ast.Repetir repetir = new Ast.Repetir();
+                abrir(repetir, repetir.getBloque(), linea);
+                break;
+            }
+            case A_HASTA:
+                // Formato esperado: hasta [que] CONDICION
+                if (linea != null) {
+                    FragmentoFuente condicion = textoDespuesDe(linea, "hasta", null);
+                    if (esPalabraInicial(condicion, "que")) {
+                        condicion = condicion.subSequence(3, condicion.length()).trim();
+                    }
+                    if (condicion.length() == 0) {
+                        diagnosticos.add(new Diagnostico(linea.getFin(), "Falta la condición de 'hasta'",
+                                "una condición", "fin de la línea"));
+                    }
+                    ((Ast.Repetir) abiertos.peek()).setCondicion(condicion);
+                }
+                break;
+            case A_ASIGNACION:
+                destinos.peek().add(new Ast.Asignacion(linea));
+                break;
+            case A_SENTENCIA:
+                verificarPalabraPegada(linea);
+                destinos.peek().add(new Ast.Sentencia(linea));
+                break;
+            case A_VACIA:
+                // Las líneas en blanco se ignoran en el primer nivel; dentro de un bloque quedan como sentencia
+                if (destinos.size() > 1) {
+                    destinos.peek().add(new Ast.Sentencia(linea));
+                }
+                break;
+            case A_CERRAR:
+                destinos.pop();
+                abiertos.pop();
+                lineasAbiertas.pop();
+                break;
+            default:
+                throw new IllegalStateException("Acción sin implementar: " + accion);
+        }
+    }
+
+    private void abrir(Ast.Nodo nodo, List<Ast.Nodo> bloque, FragmentoFuente linea) {
+        destinos.peek().add(nodo);
+        abiertos.push(nodo);
+        lineasAbiertas.push(linea);
+        destinos.push(bloque);
+    }
+
+    // "si(x > 1) entonces" queda como sentencia porque la palabra clave no va seguida de un espacio
+    private void verificarPalabraPegada(FragmentoFuente linea) {
+        int n = linea.length();
+        int fin = 0;
+        while (fin < n && fin <= LARGO_MAXIMO_CLAVE && Character.isLetter(linea.charAt(fin))) fin++;
+        if (fin == n || fin > LARGO_MAXIMO_CLAVE || Character.isLetterOrDigit(linea.charAt(fin)) || linea.charAt(fin) == '_') {
+            return;
+        }
+        int palabra = PalabrasClave.buscarSinMayusculas(linea, 0, fin);
+        if (palabra != -1 && CLASE_POR_PALABRA[palabra] != -1) {
+            diagnosticos.add(new Diagnostico(linea.getInicio() + fin, "Falta un espacio después de '"
+                    + linea.subSequence(0, fin) + "'", "' '", "'" + linea.charAt(fin) + "'"));
+        }
+    }
+
+    // ============== Clasificación de líneas ==============
+
+    // Clase de una línea ya recortada: palabra clave inicial, asignación, sentencia o vacía
+    static byte clasificar(FragmentoFuente linea) {
+        int n = linea.length();
+        if (n == 0) {
+            return VACIA;
+        }
+        // La palabra clave debe ir sola o seguida de un espacio
+        int fin = 0;
+        while (fin < n && fin <= LARGO_MAXIMO_CLAVE && linea.charAt(fin) != ' ') fin++;
+        if (fin <= LARGO_MAXIMO_CLAVE) {
+            int palabra = PalabrasClave.buscarSinMayusculas(linea, 0, fin);
+            if (palabra != -1 && CLASE_POR_PALABRA[palabra] != -1) {
+                return CLASE_POR_PALABRA[palabra];
+            }
+        }
+        return esAsignacion(linea) ? ASIGNACION : SENTENCIA;
+    }
+
+    // Equivale a matches("[a-zA-Z_][a-zA-Z0-9_]*\\s*=.+") con un solo recorrido
+    static boolean esAsignacion(CharSequence linea) {
+        int n = linea.length();
+        if (n == 0 || !esInicioIdentificador(linea.charAt(0))) {
+            return false;
+        }
+        int i = 1;
+        while (i < n && (esInicioIdentificador(linea.charAt(i)) || (linea.charAt(i) >= '0' && linea.charAt(i) <= '9'))) i++;
+        while (i < n && esEspacioRegex(linea.charAt(i))) i++;
+        if (i >= n || linea.charAt(i) != '=') {
+            return false;
+        }
+        i++;
+        if (i == n) {
+            return false;
+        }
+        // '.' no acepta terminadores de línea
+        for (; i < n; i++) {
+            char c = linea.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean esInicioIdentificador(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    // \s de java.util.regex: [ \t\n\x0B\f\r]
+    private static boolean esEspacioRegex(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Divide en líneas ya recortadas; cada línea es una vista sobre el código, no una copia
+    private static List<FragmentoFuente> dividirEnLineas(String codigo, int desde, int hasta) {
+        List<FragmentoFuente> out = new ArrayList<>();
+        int inicio = desde;
+        int n = hasta;
+        while (inicio <= n) {
+            int fin = codigo.indexOf('\n', inicio);
+            if (fin == -1 || fin > n) fin = n;
+            out.add(new FragmentoFuente(codigo, inicio, fin).trim());
+            inicio = fin + 1;
+        }
+        // Igual que split(): descartar las líneas vacías del final
+        while (!out.isEmpty() && out.get(out.size() - 1).isEmpty()) {
+            out.remove(out.size() - 1);
+        }
+        return out;
+    }
+
+    private static boolean esPalabraInicial(FragmentoFuente texto, String palabra) {
+        int largo = palabra.length();
+        return texto.empiezaCon(palabra) && (texto.length() == largo || texto.charAt(largo) == ' ');
+    }
+
+    private static FragmentoFuente extraerEntrePalabras(FragmentoFuente linea, String ini, String fin) {
+        int i = linea.indiceDe(ini);
+        int j = linea.ultimoIndiceDe(fin);
+        if (i == -1 || j == -1 || j < i + ini.length()) return linea.subSequence(0, 0);
+        return linea.subSequence(i + ini.length(), j);
+    }
+
+    // Texto después de la palabra inicial, hasta la última aparición de 'fin' si está (y fin != null)
+    private static FragmentoFuente textoDespuesDe(FragmentoFuente linea, String ini, String fin) {
+        int desde = ini.length();
+        int hasta = linea.length();
+        if (fin != null) {
+            int j = linea.ultimoIndiceDe(fin);
+            if (j >= desde) hasta = j;
+        }
+        return linea.subSequence(desde, hasta).trim();
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Análisis en flujo de fuentes grandes: lee de un {@link Reader} o de un archivo
+ * mapeado en memoria, corta el texto en construcciones de primer nivel con
+ * {@link Segmentador} y entrega los nodos de cada una en cuanto se cierra.
+ * Nunca se carga el documento completo en el heap.
+ */
+public class AnalizadorFlujo {
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    // Ventana de mapeo: permite archivos de más de 2 GB sin mapearlos enteros
+    private static final long VENTANA_MAPEO = 64L * 1024 * 1024;
+
+    private final Consumer<Ast.Nodo> receptor;
+    private final Segmentador segmentador;
+    private final int maximoSegmento;
+    private long segmentos;
+    // Segmentos sin llaves seguidos: son una sola región y el lenguaje se detecta sobre toda ella,
+    // como en SintaxisAnalizer.dividirEnRegiones. Se juntan hasta el próximo segmento Java o el fin
+    // del flujo; si pasan de maximoSegmento se analizan y el lenguaje ya decidido (espanol, null si
+    // todavía no se decidió) sigue valiendo para el resto de la serie.
+    private final StringBuilder pendiente = new StringBuilder();
+    private Boolean espanol;
+
+    public AnalizadorFlujo(Consumer<Ast.Nodo> receptor) {
+        this(receptor, Segmentador.MAXIMO_SEGMENTO_POR_DEFECTO);
+    }
+
+    public AnalizadorFlujo(Consumer<Ast.Nodo> receptor, int maximoSegmento) {
+        this.receptor = receptor;
+        this.maximoSegmento = maximoSegmento;
+        this.segmentador = new Segmentador(this::analizarSegmento, maximoSegmento);
+    }
+
+    private void analizarSegmento(CharSequence segmento, long desplazamiento) {
+        segmentos++;
+        if (segmentador.terminaEnLlave()) {
+            // Una clase o un método: región Java propia, que se analiza y se suelta al terminar
+            terminarSerie();
+            analizarRegion(segmento.toString(), false);
+        } else {
+            pendiente.append(segmento);
+            if (pendiente.length() >= maximoSegmento) {
+                analizarPendiente();
+            }
+        }
+    }
+
+    private void analizarPendiente() {
+        if (pendiente.length() == 0) {
+            return;
+        }
+        String texto = pendiente.toString();
+        pendiente.setLength(0);
+        if (espanol == null) {
+            espanol = PalabrasClave.esCodigoEspanol(texto);
+        }
+        analizarRegion(texto, espanol);
+    }
+
+    private void terminarSerie() {
+        analizarPendiente();
+        espanol = null;
+    }
+
+    private void analizarRegion(String texto, boolean espanol) {
+        SintaxisAnalizer.Region region = new SintaxisAnalizer.Region(0, texto.length(), espanol);
+        SintaxisAnalizer.analizarRegion(texto, region);
+        for (Ast.Nodo nodo : region.nodos) {
+            receptor.accept(nodo);
+        }
+    }
+
+    // Cantidad de construcciones de primer nivel analizadas hasta ahora
+    public long getSegmentos() {
+        return segmentos;
+    }
+
+    public void analizar(Reader lector) throws IOException {
+        char[] buffer = new char[TAMANO_BUFFER];
+        int leidos;
+        while ((leidos = lector.read(buffer)) != -1) {
+            segmentador.alimentar(buffer, 0, leidos);
+        }
+        segmentador.terminar();
+        terminarSerie();
+    }
+
+    public void analizar(Path archivo, Charset charset) throws IOException {
+        CharsetDecoder decodificador = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer caracteres = CharBuffer.allocate(TAMANO_BUFFER);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            long posicion = 0;
+            while (posicion < tamano) {
+                long largo = Math.min(VENTANA_MAPEO, tamano - posicion);
+                MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+                boolean ultima = posicion + largo >= tamano;
+                decodificar(decodificador, ventana, caracteres, ultima);
+                // Los bytes de un carácter partido entre ventanas se vuelven a mapear en la siguiente
+                posicion += ventana.position();
+                if (!ultima && ventana.position() == 0) {
+                    throw new IOException("No se pudo decodificar " + archivo + " en la posición " + posicion);
+                }
+            }
+            if (tamano == 0) {
+                // Archivo vacío: el decodificador igual debe terminar antes de flush
+                decodificar(decodificador, ByteBuffer.allocate(0), caracteres, true);
+            }
+            decodificador.flush(caracteres);
+            vaciar(caracteres);
+        }
+        segmentador.terminar();
+        terminarSerie();
+    }
+
+    private void decodificar(CharsetDecoder decodificador, ByteBuffer bytes, CharBuffer caracteres, boolean ultima) {
+        CoderResult resultado;
+        do {
+            resultado = decodificador.decode(bytes, caracteres, ultima);
+            vaciar(caracteres);
+            // Underflow: se consumió la ventana (o quedan bytes de un carácter incompleto)
+        } while (resultado.isOverflow());
+    }
+
+    private void vaciar(CharBuffer caracteres) {
+        caracteres.flip();
+        segmentador.alimentar(caracteres);
+        caracteres.clear();
+    }
+
+    // Atajos estáticos
+    public static long analizar(Reader lector, Consumer<Ast.Nodo> receptor) throws IOException {
+        AnalizadorFlujo flujo = new AnalizadorFlujo(receptor);
+        flujo.analizar(lector);
+        return flujo.getSegmentos();
+    }
+
+    public static long analizar(Path archivo, Charset charset, Consumer<Ast.Nodo> receptor) throws IOException {
+        AnalizadorFlujo flujo = new AnalizadorFlujo(receptor);
+        flujo.analizar(archivo, charset);
+        return flujo.getSegmentos();
+    }
+}
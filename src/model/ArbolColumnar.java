@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Árbol de derivación guardado en columnas: una fila por línea del texto de {@link Ast#renderizar}
+ * (la etiqueta de cada nodo y cada uno de sus detalles), en arreglos paralelos de enteros.
+ *
+ * Por fila se guarda la etiqueta (índice en una tabla de etiquetas internadas: "Variable",
+ * "Tipo: " o "Clase" se guardan una sola vez), la fila padre, el siguiente hermano y el tramo
+ * [inicio, fin) del código que sigue a la etiqueta ("Tipo: " + int), o -1 si la línea no lleva
+ * texto del código. Son 21 bytes por fila, sin objetos por nodo; el texto se arma recién al
+ * renderizar, recorriendo las filas en orden.
+ *
+ * Casi siempre todo el texto es del código analizado, pero el árbol del análisis incremental
+ * trae nodos reutilizados que apuntan a versiones anteriores del documento. Por eso el texto
+ * de cada fila se toma de una fuente, y las fuentes se guardan por tramos de filas seguidas
+ * (una región reutilizada es un tramo): un tramo nuevo solo cuando la fuente cambia.
+ */
+public final class ArbolColumnar {
+    // Clase de fila: la etiqueta de un nodo (puede tener hijos) o una línea de detalle (hoja)
+    public static final byte NODO = 0;
+    public static final byte DETALLE = 1;
+
+    // Tramos de fuentes: desde la fila primeraFila[t] el texto es de fuentes[t]
+    private final String[] fuentes;
+    private final int[] primeraFila;
+    private final String[] etiquetas;
+    private final byte[] clase;
+    private final int[] etiqueta;
+    private final int[] padre;
+    private final int[] siguiente;
+    private final int[] inicio;
+    private final int[] fin;
+    private final int cantidad;
+    private final List<Diagnostico> diagnosticos;
+
+    private ArbolColumnar(Constructor c, List<Diagnostico> diagnosticos) {
+        this.fuentes = c.fuentes.toArray(new String[0]);
+        this.primeraFila = Arrays.copyOf(c.primeraFila, fuentes.length);
+        this.etiquetas = c.etiquetas.toArray(new String[0]);
+        this.cantidad = c.cantidad;
+        this.clase = Arrays.copyOf(c.clase, cantidad);
+        this.etiqueta = Arrays.copyOf(c.etiqueta, cantidad);
+        this.padre = Arrays.copyOf(c.padre, cantidad);
+        this.siguiente = Arrays.copyOf(c.siguiente, cantidad);
+        this.inicio = Arrays.copyOf(c.inicio, cantidad);
+        this.fin = Arrays.copyOf(c.fin, cantidad);
+        this.diagnosticos = diagnosticos;
+    }
+
+    // 'fuente' es el código analizado: los textos que son vistas se guardan como posiciones
+    public static ArbolColumnar desde(Ast.Programa programa, String fuente) {
+        Constructor c = new Constructor(fuente);
+        c.agregar(programa, -1);
+        return new ArbolColumnar(c, programa.getDiagnosticos());
+    }
+
+    // ============== Construcción ==============
+
+    private static final class Constructor {
+        private final List<String> fuentes = new ArrayList<>();
+        private int[] primeraFila = new int[4];
+        private final List<String> etiquetas = new ArrayList<>();
+        private final Map<String, Integer> indices = new HashMap<>();
+        private byte[] clase = new byte[64];
+        private int[] etiqueta = new int[64];
+        private int[] padre = new int[64];
+        private int[] siguiente = new int[64];
+        private int[] inicio = new int[64];
+        private int[] fin = new int[64];
+        // Último hijo agregado de cada fila, para enlazar al siguiente hermano
+        private int[] ultimoHijo = new int[64];
+        private int cantidad;
+
+        Constructor(String fuente) {
+            fuentes.add(fuente);
+        }
+
+        void agregar(Ast.Nodo nodo, int filaPadre) {
+            int fila = cantidad;
+            nodo.escribirEtiqueta((fijo, texto) -> agregarFila(NODO, filaPadre, fijo, texto));
+            nodo.escribirDetalles((fijo, texto) -> agregarFila(DETALLE, fila, fijo, texto));
+            for (Ast.Nodo hijo : nodo.hijos()) {
+                agregar(hijo, fila);
+            }
+        }
+
+        private void agregarFila(byte tipo, int filaPadre, String fijo, CharSequence texto) {
+            if (cantidad == clase.length) {
+                int capacidad = cantidad * 2;
+                clase = Arrays.copyOf(clase, capacidad);
+                etiqueta = Arrays.copyOf(etiqueta, capacidad);
+                padre = Arrays.copyOf(padre, capacidad);
+                siguiente = Arrays.copyOf(siguiente, capacidad);
+                inicio = Arrays.copyOf(inicio, capacidad);
+                fin = Arrays.copyOf(fin, capacidad);
+                ultimoHijo = Arrays.copyOf(ultimoHijo, capacidad);
+            }
+            int fila = cantidad++;
+            clase[fila] = tipo;
+            padre[fila] = filaPadre;
+            siguiente[fila] = -1;
+            ultimoHijo[fila] = -1;
+            if (filaPadre != -1) {
+                if (ultimoHijo[filaPadre] != -1) {
+                    siguiente[ultimoHijo[filaPadre]] = fila;
+                }
+                ultimoHijo[filaPadre] = fila;
+            }
+            if (texto instanceof FragmentoFuente) {
+                FragmentoFuente fragmento = (FragmentoFuente) texto;
+                if (fragmento.getFuente() != fuentes.get(fuentes.size() - 1)) {
+                    abrirTramo(fila, fragmento.getFuente());
+                }
+                etiqueta[fila] = internar(fijo);
+                inicio[fila] = fragmento.getInicio();
+                fin[fila] = fragmento.getFin();
+            } else {
+                // Texto que no es una vista (mensajes, árboles leídos del disco): va en la etiqueta
+                etiqueta[fila] = internar(texto == null ? fijo : fijo + texto);
+                inicio[fila] = -1;
+                fin[fila] = -1;
+            }
+        }
+
+        private void abrirTramo(int fila, String fuente) {
+            int tramo = fuentes.size();
+            if (tramo == primeraFila.length) {
+                primeraFila = Arrays.copyOf(primeraFila, tramo * 2);
+            }
+            fuentes.add(fuente);
+            primeraFila[tramo] = fila;
+        }
+
+        private int internar(String texto) {
+            Integer indice = indices.get(texto);
+            if (indice == null) {
+                indice = etiquetas.size();
+                etiquetas.add(texto);
+                indices.put(texto, indice);
+            }
+            return indice;
+        }
+    }
+
+    // ============== Consulta ==============
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    // NODO o DETALLE
+    public byte clase(int fila) {
+        return clase[fila];
+    }
+
+    // Índice de la etiqueta en la tabla (dos filas con la misma etiqueta tienen el mismo índice)
+    public int etiqueta(int fila) {
+        return etiqueta[fila];
+    }
+
+    public String getEtiqueta(int indice) {
+        return etiquetas[indice];
+    }
+
+    public int cantidadEtiquetas() {
+        return etiquetas.length;
+    }
+
+    // -1 en la raíz
+    public int padre(int fila) {
+        return padre[fila];
+    }
+
+    // Las filas están en preorden: el primer hijo, si lo hay, es la fila siguiente
+    public int primerHijo(int fila) {
+        return fila + 1 < cantidad && padre[fila + 1] == fila ? fila + 1 : -1;
+    }
+
+    // -1 si es el último hijo de su padre
+    public int siguienteHermano(int fila) {
+        return siguiente[fila];
+    }
+
+    // Texto del código que sigue a la etiqueta (vista, sin copia), o null
+    public FragmentoFuente fragmento(int fila) {
+        return inicio[fila] == -1 ? null : new FragmentoFuente(fuenteDe(fila), inicio[fila], fin[fila]);
+    }
+
+    // La línea completa, como aparece en el texto renderizado (sin sangría)
+    public String texto(int fila) {
+        String fijo = etiquetas[etiqueta[fila]];
+        return inicio[fila] == -1 ? fijo : fijo + fuenteDe(fila).substring(inicio[fila], fin[fila]);
+    }
+
+    // Fuente del tramo que contiene a la fila (búsqueda binaria; casi siempre hay un solo tramo)
+    private String fuenteDe(int fila) {
+        int bajo = 0;
+        int alto = primeraFila.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (primeraFila[medio] <= fila) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return fuentes[bajo];
+    }
+
+    public List<Diagnostico> getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    // Memoria aproximada de las columnas y la tabla de etiquetas (sin contar el código fuente)
+    public long bytesEstimados() {
+        long bytes = cantidad * (1L + 5 * Integer.BYTES) + fuentes.length * (8L + Integer.BYTES);
+        for (String e : etiquetas) {
+            bytes += 40 + e.length();
+        }
+        return bytes;
+    }
+
+    // Vuelve a armar el árbol con nodos leídos (como SerializadorAst.desdeBytes), para quien
+    // necesite un Ast.Programa: el grupo "Errores de sintaxis" sale de los diagnósticos
+    public Ast.Programa aAst() {
+        Ast.Programa programa = new Ast.Programa();
+        if (cantidad == 0) {
+            return programa;
+        }
+        int ultimo = -1;
+        for (int hijo = primerHijo(0); hijo != -1; hijo = siguiente[hijo]) {
+            ultimo = hijo;
+        }
+        for (int hijo = primerHijo(0); hijo != -1; hijo = siguiente[hijo]) {
+            if (clase[hijo] == NODO && !(hijo == ultimo && !diagnosticos.isEmpty())) {
+                programa.getElementos().add(leido(hijo));
+            }
+        }
+        programa.setDiagnosticos(diagnosticos);
+        return programa;
+    }
+
+    private Ast.Leido leido(int fila) {
+        List<String> detalles = new ArrayList<>(0);
+        List<Ast.Nodo> hijos = new ArrayList<>(0);
+        for (int hijo = primerHijo(fila); hijo != -1; hijo = siguiente[hijo]) {
+            if (clase[hijo] == DETALLE) {
+                detalles.add(texto(hijo));
+            } else {
+                hijos.add(leido(hijo));
+            }
+        }
+        return new Ast.Leido(texto(fila), detalles, hijos);
+    }
+
+    // ============== Presentación ==============
+
+    // Mismo texto que Ast.renderizar(programa)
+    public String renderizar() {
+        long medicion = Metricas.inicio();
+        int[] nivel = new int[cantidad];
+        StringBuilder sb = new StringBuilder(Ast.ENCABEZADO);
+        int tramo = 0;
+        for (int fila = 0; fila < cantidad; fila++) {
+            while (tramo + 1 < fuentes.length && primeraFila[tramo + 1] <= fila) {
+                tramo++;
+            }
+            int p = padre[fila];
+            nivel[fila] = p == -1 ? 0 : nivel[p] + 1;
+            for (int i = 0; i < nivel[fila]; i++) {
+                sb.append("  ");
+            }
+            sb.append(etiquetas[etiqueta[fila]]);
+            if (inicio[fila] != -1) {
+                sb.append(fuentes[tramo], inicio[fila], fin[fila]);
+            }
+            sb.append('\n');
+        }
+        String texto = sb.toString();
+        Metricas.registrar(Metricas.Fase.RENDERIZADO, medicion);
+        return texto;
+    }
+}
@@ -0,0 +1,663 @@
+import java.util.*;
+
+/**
+ * Árbol de sintaxis abstracta producido por {@link SintaxisAnalizer}.
+ * Cada nodo tipado expone sus datos con getters y, para presentarlo, una
+ * etiqueta, sus detalles ("Tipo: int", "Condición: x > 0") y sus hijos.
+ * Los textos de los nodos son vistas {@link FragmentoFuente} sobre la fuente, no copias.
+ * El texto del árbol de derivación se genera solo cuando se pide con {@link #renderizar}.
+ */
+public final class Ast {
+    public static final String ENCABEZADO = "Árbol de derivación:\n";
+
+    private Ast() {
+    }
+
+    public abstract static class Nodo {
+        public abstract String etiqueta();
+
+        // Líneas que se muestran debajo de la etiqueta, antes de los hijos
+        public List<String> detalles() {
+            List<String> detalles = new ArrayList<>(3);
+            escribirDetalles((fijo, texto) -> detalles.add(texto == null ? fijo : fijo + texto));
+            return detalles;
+        }
+
+        public List<Nodo> hijos() {
+            return Collections.emptyList();
+        }
+
+        // La etiqueta y los detalles sin concatenar: cada línea es un texto fijo ("Tipo: ") y, si lo
+        // hay, el texto del código que lo sigue. Así se renderiza sin armar un String por línea y
+        // ArbolColumnar guarda solo la posición del texto en el código.
+        public void escribirEtiqueta(Lineas destino) {
+            destino.linea(etiqueta(), null);
+        }
+
+        public void escribirDetalles(Lineas destino) {
+        }
+    }
+
+    // Destino de las líneas de un nodo (ver Nodo.escribirEtiqueta / escribirDetalles)
+    public interface Lineas {
+        void linea(String fijo, CharSequence texto);
+    }
+
+    // Nodo de agrupación usado solo para presentar ("Atributos", "Métodos", "Bloque", ...)
+    public static class Grupo extends Nodo {
+        private final String etiqueta;
+        private final List<? extends Nodo> hijos;
+
+        public Grupo(String etiqueta, List<? extends Nodo> hijos) {
+            this.etiqueta = etiqueta;
+            this.hijos = hijos;
+        }
+
+        @Override
+        public String etiqueta() {
+            return etiqueta;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Nodo> hijos() {
+            return (List<Nodo>) hijos;
+        }
+    }
+
+    public static class Programa extends Nodo {
+        private final List<Nodo> elementos = new ArrayList<>();
+        // Errores de sintaxis de todo el documento, ordenados por posición
+        private List<Diagnostico> diagnosticos = Collections.emptyList();
+
+        public List<Nodo> getElementos() {
+            return elementos;
+        }
+
+        public List<Diagnostico> getDiagnosticos() {
+            return diagnosticos;
+        }
+
+        public void setDiagnosticos(List<Diagnostico> diagnosticos) {
+            this.diagnosticos = diagnosticos;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Programa";
+        }
+
+        // Los diagnósticos se muestran al final, como un grupo "Errores de sintaxis"
+        @Override
+        public List<Nodo> hijos() {
+            if (diagnosticos.isEmpty()) {
+                return elementos;
+            }
+            List<Nodo> errores = new ArrayList<>(diagnosticos.size());
+            for (Diagnostico diagnostico : diagnosticos) {
+                errores.add(new Error(diagnostico.toString()));
+            }
+            List<Nodo> hijos = new ArrayList<>(elementos);
+            hijos.add(new Grupo("Errores de sintaxis", errores));
+            return hijos;
+        }
+    }
+
+    // ========================== Modo Java ==========================
+
+    public static class Clase extends Nodo {
+        private final CharSequence nombre;
+        private final List<Variable> atributos = new ArrayList<>();
+        private final List<Metodo> metodos = new ArrayList<>();
+        private final List<Clase> clases = new ArrayList<>();
+
+        public Clase(CharSequence nombre) {
+            this.nombre = nombre;
+        }
+
+        public CharSequence getNombre() {
+            return nombre;
+        }
+
+        public List<Variable> getAtributos() {
+            return atributos;
+        }
+
+        public List<Metodo> getMetodos() {
+            return metodos;
+        }
+
+        // Clases declaradas dentro del cuerpo, en orden de aparición
+        public List<Clase> getClases() {
+            return clases;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Clase";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            destino.linea("Nombre: ", nombre);
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            List<Nodo> hijos = new ArrayList<>(3);
+            if (!atributos.isEmpty()) hijos.add(new Grupo("Atributos", atributos));
+            if (!metodos.isEmpty()) hijos.add(new Grupo("Métodos", metodos));
+            if (!clases.isEmpty()) hijos.add(new Grupo("Clases internas", clases));
+            if (hijos.isEmpty()) hijos.add(new Grupo("Clase vacía o sin elementos reconocibles", Collections.emptyList()));
+            return hijos;
+        }
+    }
+
+    // Contenido de un bloque Java: variables locales y estructuras de control
+    public static class Cuerpo {
+        private final List<Variable> variables = new ArrayList<>();
+        private final List<Nodo> estructuras = new ArrayList<>();
+
+        public List<Variable> getVariables() {
+            return variables;
+        }
+
+        public List<Nodo> getEstructuras() {
+            return estructuras;
+        }
+
+        List<Nodo> comoHijos() {
+            if (variables.isEmpty()) {
+                return estructuras;
+            }
+            List<Nodo> hijos = new ArrayList<>(estructuras.size() + 1);
+            hijos.add(new Grupo("Variables", variables));
+            hijos.addAll(estructuras);
+            return hijos;
+        }
+    }
+
+    public static class Metodo extends Nodo {
+        private final CharSequence tipo;
+        private final CharSequence nombre;
+        private final CharSequence parametros;
+        private final Cuerpo cuerpo;
+
+        public Metodo(CharSequence tipo, CharSequence nombre, CharSequence parametros, Cuerpo cuerpo) {
+            this.tipo = tipo;
+            this.nombre = nombre;
+            this.parametros = parametros;
+            this.cuerpo = cuerpo;
+        }
+
+        public CharSequence getTipo() {
+            return tipo;
+        }
+
+        public CharSequence getNombre() {
+            return nombre;
+        }
+
+        public CharSequence getParametros() {
+            return parametros;
+        }
+
+        public Cuerpo getCuerpo() {
+            return cuerpo;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Método";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            destino.linea("Tipo: ", tipo);
+            destino.linea("Nombre: ", nombre);
+            destino.linea("Parámetros: ", parametros);
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            return cuerpo.comoHijos();
+        }
+    }
+
+    // Declaración suelta: se muestra como "Variables" cuando no hay clase ni método
+    public static class Declaraciones extends Grupo {
+        public Declaraciones(List<Variable> variables) {
+            super("Variables", variables);
+        }
+    }
+
+    public static class Variable extends Nodo {
+        private final CharSequence tipo;
+        private final CharSequence nombre;
+        private final CharSequence valor;
+
+        public Variable(CharSequence tipo, CharSequence nombre, CharSequence valor) {
+            this.tipo = tipo;
+            this.nombre = nombre;
+            this.valor = valor;
+        }
+
+        public CharSequence getTipo() {
+            return tipo;
+        }
+
+        public CharSequence getNombre() {
+            return nombre;
+        }
+
+        // null si la variable se declara sin valor inicial
+        public CharSequence getValor() {
+            return valor;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Variable";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            destino.linea("Tipo: ", tipo);
+            destino.linea("Nombre: ", nombre);
+            if (valor != null) {
+                destino.linea("Valor: ", valor);
+            } else {
+                destino.linea("Valor: Sin valor", null);
+            }
+        }
+    }
+
+    public static class If extends Nodo {
+        private final CharSequence condicion;
+        private final Cuerpo entonces;
+        private final Cuerpo sino;
+
+        public If(CharSequence condicion, Cuerpo entonces, Cuerpo sino) {
+            this.condicion = condicion;
+            this.entonces = entonces;
+            this.sino = sino;
+        }
+
+        public CharSequence getCondicion() {
+            return condicion;
+        }
+
+        public Cuerpo getEntonces() {
+            return entonces;
+        }
+
+        // null si no hay else
+        public Cuerpo getSino() {
+            return sino;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "If";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            destino.linea("Condición: ", condicion);
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            if (sino == null) {
+                return entonces.comoHijos();
+            }
+            List<Nodo> hijos = new ArrayList<>(entonces.comoHijos());
+            hijos.add(new Grupo("Else", sino.comoHijos()));
+            return hijos;
+        }
+    }
+
+    // Base de For y While: condición y cuerpo
+    public abstract static class Bucle extends Nodo {
+        private final CharSequence condicion;
+        private final Cuerpo cuerpo;
+
+        protected Bucle(CharSequence condicion, Cuerpo cuerpo) {
+            this.condicion = condicion;
+            this.cuerpo = cuerpo;
+        }
+
+        public CharSequence getCondicion() {
+            return condicion;
+        }
+
+        public Cuerpo getCuerpo() {
+            return cuerpo;
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            destino.linea("Condición: ", condicion);
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            return cuerpo.comoHijos();
+        }
+    }
+
+    public static class For extends Bucle {
+        public For(CharSequence condicion, Cuerpo cuerpo) {
+            super(condicion, cuerpo);
+        }
+
+        @Override
+        public String etiqueta() {
+            return "For";
+        }
+    }
+
+    public static class While extends Bucle {
+        public While(CharSequence condicion, Cuerpo cuerpo) {
+            super(condicion, cuerpo);
+        }
+
+        @Override
+        public String etiqueta() {
+            return "While";
+        }
+    }
+
+    // ======================== Modo español ========================
+
+    public static class Si extends Nodo {
+        private final CharSequence condicion;
+        private final List<Nodo> entonces = new ArrayList<>();
+        private List<Nodo> sino;
+
+        public Si(CharSequence condicion) {
+            this.condicion = condicion;
+        }
+
+        public CharSequence getCondicion() {
+            return condicion;
+        }
+
+        public List<Nodo> getEntonces() {
+            return entonces;
+        }
+
+        // null si no hay rama sino
+        public List<Nodo> getSino() {
+            return sino;
+        }
+
+        public List<Nodo> abrirSino() {
+            sino = new ArrayList<>();
+            return sino;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Si";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            if (condicion.length() == 0) {
+                destino.linea("Condición: <vacía>", null);
+            } else {
+                destino.linea("Condición: ", condicion);
+            }
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            List<Nodo> hijos = new ArrayList<>(2);
+            hijos.add(new Grupo("Entonces", entonces));
+            if (sino != null) hijos.add(new Grupo("Sino", sino));
+            return hijos;
+        }
+    }
+
+    public static class Mientras extends Nodo {
+        private final CharSequence condicion;
+        private final List<Nodo> bloque = new ArrayList<>();
+
+        public Mientras(CharSequence condicion) {
+            this.condicion = condicion;
+        }
+
+        public CharSequence getCondicion() {
+            return condicion;
+        }
+
+        public List<Nodo> getBloque() {
+            return bloque;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Mientras";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            if (condicion.length() == 0) {
+                destino.linea("Condición: <vacía>", null);
+            } else {
+                destino.linea("Condición: ", condicion);
+            }
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            return Collections.singletonList(new Grupo("Bloque", bloque));
+        }
+    }
+
+    // para CONTROL hacer ... finpara
+    public static class Para extends Nodo {
+        private final CharSequence control;
+        private final List<Nodo> bloque = new ArrayList<>();
+
+        public Para(CharSequence control) {
+            this.control = control;
+        }
+
+        public CharSequence getControl() {
+            return control;
+        }
+
+        public List<Nodo> getBloque() {
+            return bloque;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Para";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            if (control.length() == 0) {
+                destino.linea("Control: <vacío>", null);
+            } else {
+                destino.linea("Control: ", control);
+            }
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            return Collections.singletonList(new Grupo("Bloque", bloque));
+        }
+    }
+
+    // repetir ... hasta [que] CONDICION; la condición se conoce al cerrar el bloque
+    public static class Repetir extends Nodo {
+        private CharSequence condicion = "";
+        private final List<Nodo> bloque = new ArrayList<>();
+
+        public CharSequence getCondicion() {
+            return condicion;
+        }
+
+        public void setCondicion(CharSequence condicion) {
+            this.condicion = condicion;
+        }
+
+        public List<Nodo> getBloque() {
+            return bloque;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Repetir";
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            if (condicion.length() == 0) {
+                destino.linea("Hasta: <vacía>", null);
+            } else {
+                destino.linea("Hasta: ", condicion);
+            }
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            return Collections.singletonList(new Grupo("Bloque", bloque));
+        }
+    }
+
+    public static class Asignacion extends Nodo {
+        private final CharSequence texto;
+
+        public Asignacion(CharSequence texto) {
+            this.texto = texto;
+        }
+
+        public CharSequence getTexto() {
+            return texto;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Asignación: " + texto;
+        }
+
+        @Override
+        public void escribirEtiqueta(Lineas destino) {
+            destino.linea("Asignación: ", texto);
+        }
+    }
+
+    // Línea no reconocida del modo español
+    public static class Sentencia extends Nodo {
+        private final CharSequence texto;
+
+        public Sentencia(CharSequence texto) {
+            this.texto = texto;
+        }
+
+        public CharSequence getTexto() {
+            return texto;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Sentencia: " + texto;
+        }
+
+        @Override
+        public void escribirEtiqueta(Lineas destino) {
+            destino.linea("Sentencia: ", texto);
+        }
+    }
+
+    public static class Error extends Nodo {
+        private final String mensaje;
+
+        public Error(String mensaje) {
+            this.mensaje = mensaje;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+
+        @Override
+        public String etiqueta() {
+            return "Error: " + mensaje;
+        }
+    }
+
+    // Nodo reconstruido desde un árbol serializado (ver SerializadorAst): solo lo que se presenta
+    public static class Leido extends Nodo {
+        private final String etiqueta;
+        private final List<String> detalles;
+        private final List<Nodo> hijos;
+
+        public Leido(String etiqueta, List<String> detalles, List<Nodo> hijos) {
+            this.etiqueta = etiqueta;
+            this.detalles = detalles;
+            this.hijos = hijos;
+        }
+
+        @Override
+        public String etiqueta() {
+            return etiqueta;
+        }
+
+        @Override
+        public List<String> detalles() {
+            return detalles;
+        }
+
+        @Override
+        public void escribirDetalles(Lineas destino) {
+            for (String detalle : detalles) {
+                destino.linea(detalle, null);
+            }
+        }
+
+        @Override
+        public List<Nodo> hijos() {
+            return hijos;
+        }
+    }
+
+    // ========================= Presentación =========================
+
+    public static String renderizar(Nodo raiz) {
+        long inicio = Metricas.inicio();
+        StringBuilder sb = new StringBuilder(ENCABEZADO);
+        renderizar(raiz, 0, sb);
+        String texto = sb.toString();
+        Metricas.registrar(Metricas.Fase.RENDERIZADO, inicio);
+        return texto;
+    }
+
+    public static void renderizar(Nodo nodo, int nivel, StringBuilder sb) {
+        nodo.escribirEtiqueta((fijo, texto) -> agregarLinea(sb, nivel, fijo, texto));
+        nodo.escribirDetalles((fijo, texto) -> agregarLinea(sb, nivel + 1, fijo, texto));
+        for (Nodo hijo : nodo.hijos()) {
+            renderizar(hijo, nivel + 1, sb);
+        }
+    }
+
+    static void agregarLinea(StringBuilder sb, int nivel, String fijo, CharSequence texto) {
+        for (int i = 0; i < nivel; i++) {
+            sb.append("  ");
+        }
+        sb.append(fijo);
+        if (texto instanceof FragmentoFuente) {
+            // Copia directa desde la fuente (append(CharSequence) iría carácter por carácter)
+            FragmentoFuente fragmento = (FragmentoFuente) texto;
+            sb.append(fragmento.getFuente(), fragmento.getInicio(), fragmento.getFin());
+        } else if (texto != null) {
+            sb.append(texto);
+        }
+        sb.append('\n');
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * Clasificación de caracteres para el análisis carácter por carácter.
+ * Los 128 caracteres ASCII se resuelven con una tabla precalculada; el resto
+ * usa la cadena de comparaciones original (letras y dígitos Unicode, símbolos).
+ */
+public final class ClasificadorCaracteres {
+    // Clases de carácter
+    public static final byte LETRA = 0;
+    public static final byte DIGITO = 1;
+    public static final byte ESPACIO = 2;
+    public static final byte TABULACION = 3;
+    public static final byte SALTO_LINEA = 4;
+    public static final byte RETORNO_CARRO = 5;
+    public static final byte ESPACIO_BLANCO = 6;
+    public static final byte LLAVE_APERTURA = 7;
+    public static final byte LLAVE_CIERRE = 8;
+    public static final byte PARENTESIS_APERTURA = 9;
+    public static final byte PARENTESIS_CIERRE = 10;
+    public static final byte PUNTO_Y_COMA = 11;
+    public static final byte OPERADOR_ASIGNACION = 12;
+    public static final byte OPERADOR_ARITMETICO = 13;
+    public static final byte OPERADOR_COMPARACION = 14;
+    public static final byte COMILLA_DOBLE = 15;
+    public static final byte COMILLA_SIMPLE = 16;
+    public static final byte PUNTO = 17;
+    public static final byte COMA = 18;
+    public static final byte SIMBOLO_ESPECIAL = 19;
+
+    private static final String[] NOMBRES = {
+        "Letra", "Dígito", "Espacio", "Tabulación", "Salto de línea", "Retorno de carro",
+        "Espacio en blanco", "Llave de apertura", "Llave de cierre", "Paréntesis de apertura",
+        "Paréntesis de cierre", "Punto y coma", "Operador de asignación", "Operador aritmético",
+        "Operador de comparación", "Comilla doble", "Comilla simple", "Punto", "Coma", "Símbolo especial"
+    };
+
+    private static final byte[] TABLA_ASCII = new byte[128];
+    // Cierre de cada línea del reporte ya armado: "' (Letra)\n"
+    private static final String[] SUFIJOS = new String[NOMBRES.length];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            TABLA_ASCII[c] = clasificarSinTabla(c);
+        }
+        for (int i = 0; i < NOMBRES.length; i++) {
+            SUFIJOS[i] = "' (" + NOMBRES[i] + ")\n";
+        }
+    }
+
+    // Tipos de secuencia del reporte agrupado
+    public static final String SECUENCIA_IDENTIFICADOR = "Identificador";
+    public static final String SECUENCIA_NUMERO = "Número";
+    public static final String SECUENCIA_OPERADOR = "Operador";
+
+    private static final String ENCABEZADO_AGRUPADO = "Análisis agrupado por secuencias:\n" + "================================\n";
+    private static final String ENCABEZADO = "Análisis carácter por carácter:\n" + "================================\n";
+    private static final String PREFIJO = "Posición ";
+    // Largo típico de una línea: "Posición 1234: 'x' (Operador aritmético)\n"
+    private static final int LARGO_ESTIMADO_LINEA = 36;
+    // Cada cuántos caracteres se revisa si el análisis fue cancelado
+    private static final int MASCARA_CANCELACION = (1 << 16) - 1;
+
+    private ClasificadorCaracteres() {
+    }
+
+    public static byte clasificar(char c) {
+        return c < 128 ? TABLA_ASCII[c] : clasificarSinTabla(c);
+    }
+
+    public static String nombre(byte clase) {
+        return NOMBRES[clase];
+    }
+
+    public static int cantidadDeClases() {
+        return NOMBRES.length;
+    }
+
+    public static boolean esEspacio(byte clase) {
+        return clase >= ESPACIO && clase <= ESPACIO_BLANCO;
+    }
+
+    private static byte clasificarSinTabla(char c) {
+        if (Character.isLetter(c)) {
+            return LETRA;
+        } else if (Character.isDigit(c)) {
+            return DIGITO;
+        } else if (Character.isWhitespace(c)) {
+            if (c == ' ') return ESPACIO;
+            if (c == '\t') return TABULACION;
+            if (c == '\n') return SALTO_LINEA;
+            if (c == '\r') return RETORNO_CARRO;
+            return ESPACIO_BLANCO;
+        } else if (c == '{') {
+            return LLAVE_APERTURA;
+        } else if (c == '}') {
+            return LLAVE_CIERRE;
+        } else if (c == '(') {
+            return PARENTESIS_APERTURA;
+        } else if (c == ')') {
+            return PARENTESIS_CIERRE;
+        } else if (c == ';') {
+            return PUNTO_Y_COMA;
+        } else if (c == '=') {
+            return OPERADOR_ASIGNACION;
+        } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+            return OPERADOR_ARITMETICO;
+        } else if (c == '<' || c == '>' || c == '!') {
+            return OPERADOR_COMPARACION;
+        } else if (c == '"') {
+            return COMILLA_DOBLE;
+        } else if (c == '\'') {
+            return COMILLA_SIMPLE;
+        } else if (c == '.') {
+            return PUNTO;
+        } else if (c == ',') {
+            return COMA;
+        } else {
+            return SIMBOLO_ESPECIAL;
+        }
+    }
+
+    // Reporte de texto: una línea "Posición %3d: 'c' (clase)" por carácter que no es espacio en blanco
+    public static String reporte(CharSequence codigo) {
+        long inicio = Metricas.inicio();
+        int n = codigo.length();
+        StringBuilder resultado = new StringBuilder(ENCABEZADO.length() + n * LARGO_ESTIMADO_LINEA);
+        resultado.append(ENCABEZADO);
+        for (int i = 0; i < n; i++) {
+            if ((i & MASCARA_CANCELACION) == 0) {
+                SintaxisAnalizer.verificarCancelacion();
+            }
+            char c = codigo.charAt(i);
+            byte clase = clasificar(c);
+            // Omitir espacios en blanco
+            if (esEspacio(clase)) {
+                continue;
+            }
+            agregarLinea(resultado, i, c, clase);
+        }
+        String texto = resultado.toString();
+        Metricas.registrar(Metricas.Fase.REPORTE_CARACTERES, inicio);
+        return texto;
+    }
+
+    // Igual que reporte(), a partir de un resultado ya clasificado
+    public static String reporte(ReporteCaracteres clasificados) {
+        long inicio = Metricas.inicio();
+        int n = clasificados.cantidad();
+        StringBuilder resultado = new StringBuilder(ENCABEZADO.length() + n * LARGO_ESTIMADO_LINEA);
+        resultado.append(ENCABEZADO);
+        for (int k = 0; k < n; k++) {
+            if ((k & MASCARA_CANCELACION) == 0) {
+                SintaxisAnalizer.verificarCancelacion();
+            }
+            agregarLinea(resultado, clasificados.posicion(k), clasificados.caracter(k), clasificados.clase(k));
+        }
+        String texto = resultado.toString();
+        Metricas.registrar(Metricas.Fase.REPORTE_CARACTERES, inicio);
+        return texto;
+    }
+
+    // Una sola línea del reporte (sin el salto de línea), para vistas que generan filas a pedido
+    public static String linea(ReporteCaracteres clasificados, int k) {
+        StringBuilder sb = new StringBuilder(LARGO_ESTIMADO_LINEA);
+        agregarLinea(sb, clasificados.posicion(k), clasificados.caracter(k), clasificados.clase(k));
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    static void agregarLinea(StringBuilder sb, int posicion, char c, byte clase) {
+        sb.append(PREFIJO);
+        // Equivalente a %3d
+        if (posicion < 100) {
+            sb.append(posicion < 10 ? "  " : " ");
+        }
+        sb.append(posicion).append(": '").append(c).append(SUFIJOS[clase]);
+    }
+
+    // Resultado estructurado (arreglos de posición / carácter / clase) sin generar texto
+    public static ReporteCaracteres clasificarTodo(CharSequence codigo) {
+        long inicio = Metricas.inicio();
+        int n = codigo.length();
+        int[] posiciones = new int[n];
+        char[] caracteres = new char[n];
+        byte[] clases = new byte[n];
+        int cantidad = 0;
+        for (int i = 0; i < n; i++) {
+            if ((i & MASCARA_CANCELACION) == 0) {
+                SintaxisAnalizer.verificarCancelacion();
+            }
+            char c = codigo.charAt(i);
+            byte clase = clasificar(c);
+            if (esEspacio(clase)) {
+                continue;
+            }
+            posiciones[cantidad] = i;
+            caracteres[cantidad] = c;
+            clases[cantidad] = clase;
+            cantidad++;
+        }
+        Metricas.registrar(Metricas.Fase.REPORTE_CARACTERES, inicio);
+        return new ReporteCaracteres(posiciones, caracteres, clases, cantidad);
+    }
+
+    // Reporte por secuencias: agrupa caracteres consecutivos de la misma clase
+    // (identificadores, números y operadores compuestos) y agrega un histograma por clase.
+    public static String reporteAgrupado(CharSequence codigo) {
+        long medicion = Metricas.inicio();
+        int n = codigo.length();
+        int[] histograma = new int[NOMBRES.length];
+        int secuencias = 0;
+        StringBuilder resultado = new StringBuilder(ENCABEZADO_AGRUPADO.length() + n * 4);
+        resultado.append(ENCABEZADO_AGRUPADO);
+        int i = 0;
+        while (i < n) {
+            if ((i & MASCARA_CANCELACION) == 0) {
+                SintaxisAnalizer.verificarCancelacion();
+            }
+            byte clase = clasificar(codigo.charAt(i));
+            histograma[clase]++;
+            if (esEspacio(clase)) {
+                i++;
+                continue;
+            }
+            int inicio = i;
+            i++;
+            while (i < n) {
+                byte siguiente = clasificar(codigo.charAt(i));
+                if (!continuaSecuencia(clase, siguiente, codigo.charAt(i))) {
+                    break;
+                }
+                histograma[siguiente]++;
+                i++;
+            }
+            secuencias++;
+            agregarSecuencia(resultado, codigo, inicio, i, clase);
+        }
+
+        resultado.append('\n').append("Histograma por clase:\n");
+        for (byte clase = 0; clase < NOMBRES.length; clase++) {
+            if (histograma[clase] > 0) {
+                resultado.append("  ").append(NOMBRES[clase]).append(": ").append(histograma[clase]).append('\n');
+            }
+        }
+        resultado.append("Total: ").append(n).append(" caracteres en ").append(secuencias).append(" secuencias\n");
+        String texto = resultado.toString();
+        Metricas.registrar(Metricas.Fase.REPORTE_CARACTERES, medicion);
+        return texto;
+    }
+
+    // Cantidad de caracteres de cada clase (índice = clase)
+    public static int[] histograma(CharSequence codigo) {
+        int[] histograma = new int[NOMBRES.length];
+        for (int i = 0, n = codigo.length(); i < n; i++) {
+            histograma[clasificar(codigo.charAt(i))]++;
+        }
+        return histograma;
+    }
+
+    private static boolean continuaSecuencia(byte clase, byte siguiente, char c) {
+        if (clase == LETRA) {
+            // Un identificador sigue con letras, dígitos y '_'
+            return siguiente == LETRA || siguiente == DIGITO || c == '_';
+        }
+        if (esOperador(clase)) {
+            return esOperador(siguiente);
+        }
+        return siguiente == clase;
+    }
+
+    private static boolean esOperador(byte clase) {
+        return clase == OPERADOR_ASIGNACION || clase == OPERADOR_ARITMETICO || clase == OPERADOR_COMPARACION;
+    }
+
+    private static void agregarSecuencia(StringBuilder sb, CharSequence codigo, int inicio, int fin, byte clase) {
+        int largo = fin - inicio;
+        sb.append(PREFIJO);
+        if (inicio < 100) {
+            sb.append(inicio < 10 ? "  " : " ");
+        }
+        sb.append(inicio);
+        if (largo > 1) {
+            sb.append('-').append(fin - 1);
+        }
+        sb.append(": '").append(codigo, inicio, fin).append("' (");
+        if (clase == LETRA) {
+            sb.append(SECUENCIA_IDENTIFICADOR);
+        } else if (clase == DIGITO) {
+            sb.append(SECUENCIA_NUMERO);
+        } else if (esOperador(clase) && largo > 1) {
+            sb.append(SECUENCIA_OPERADOR);
+        } else {
+            sb.append(NOMBRES[clase]);
+        }
+        if (largo > 1) {
+            sb.append(" x").append(largo);
+        }
+        sb.append(")\n");
+    }
+}
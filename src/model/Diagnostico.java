@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Error de sintaxis encontrado durante el análisis: posición en el código, qué se esperaba
+ * y qué se encontró. Los analizadores lo crean solo con la posición; la línea y la columna
+ * (desde 1) se calculan al final con {@link #ubicar}, en una sola pasada por el código.
+ */
+public final class Diagnostico {
+    public static final String FIN_DEL_CODIGO = "fin del código";
+
+    private final int posicion;
+    private final String mensaje;
+    private final String esperado;
+    private final String encontrado;
+    // 0 mientras no se haya ubicado
+    private final int linea;
+    private final int columna;
+
+    public Diagnostico(int posicion, String mensaje, String esperado, String encontrado) {
+        this(posicion, mensaje, esperado, encontrado, 0, 0);
+    }
+
+    // Ya ubicado (lectura de un árbol serializado)
+    Diagnostico(int posicion, String mensaje, String esperado, String encontrado, int linea, int columna) {
+        this.posicion = posicion;
+        this.mensaje = mensaje;
+        this.esperado = esperado;
+        this.encontrado = encontrado;
+        this.linea = linea;
+        this.columna = columna;
+    }
+
+    public int getPosicion() {
+        return posicion;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    // null si no aplica
+    public String getEsperado() {
+        return esperado;
+    }
+
+    public String getEncontrado() {
+        return encontrado;
+    }
+
+    public int getLinea() {
+        return linea;
+    }
+
+    public int getColumna() {
+        return columna;
+    }
+
+    // El mismo diagnóstico movido 'delta' caracteres (segmentos analizados por separado)
+    Diagnostico desplazado(int delta) {
+        return delta == 0 ? this : new Diagnostico(posicion + delta, mensaje, esperado, encontrado);
+    }
+
+    /**
+     * Ordena los diagnósticos por posición, descarta los repetidos (la misma posición y el mismo
+     * mensaje, de un tramo analizado más de una vez) y les asigna línea y columna en 'fuente'.
+     */
+    static List<Diagnostico> ubicar(CharSequence fuente, List<Diagnostico> diagnosticos) {
+        if (diagnosticos.isEmpty()) {
+            return diagnosticos;
+        }
+        List<Diagnostico> ordenados = new ArrayList<>(diagnosticos);
+        ordenados.sort(Comparator.comparingInt(Diagnostico::getPosicion));
+        List<Diagnostico> ubicados = new ArrayList<>(ordenados.size());
+        int linea = 1;
+        int inicioLinea = 0;
+        int i = 0;
+        Diagnostico anterior = null;
+        for (Diagnostico d : ordenados) {
+            if (anterior != null && anterior.posicion == d.posicion && anterior.mensaje.equals(d.mensaje)) {
+                continue;
+            }
+            int hasta = Math.min(d.posicion, fuente.length());
+            for (; i < hasta; i++) {
+                if (fuente.charAt(i) == '\n') {
+                    linea++;
+                    inicioLinea = i + 1;
+                }
+            }
+            ubicados.add(new Diagnostico(d.posicion, d.mensaje, d.esperado, d.encontrado, linea, hasta - inicioLinea + 1));
+            anterior = d;
+        }
+        return ubicados;
+    }
+
+    // "Línea 3, columna 5: Bloque '{' sin cerrar (se esperaba '}', se encontró fin del código)"
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (linea > 0) {
+            sb.append("Línea ").append(linea).append(", columna ").append(columna).append(": ");
+        }
+        sb.append(mensaje);
+        if (esperado != null) {
+            sb.append(" (se esperaba ").append(esperado).append(", se encontró ").append(encontrado).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de JFR por documento analizado (la duración es la del análisis completo).
+ * Lo emite {@link Metricas} cuando las métricas están activas; se ve en JDK Mission Control
+ * grabando con -XX:StartFlightRecording.
+ */
+@Name("analizador.Analisis")
+@Label("Análisis sintáctico")
+@Category("Analizador sintáctico")
+@Description("Un documento analizado por SintaxisAnalizer")
+final class EventoAnalisis extends Event {
+    @Label("Caracteres")
+    int caracteres;
+
+    @Label("Modo")
+    String modo;
+
+    @Label("Elementos de primer nivel")
+    int elementos;
+
+    @Label("Diagnósticos")
+    int diagnosticos;
+
+    // Para el histograma de Metricas; JFR no guarda campos transient
+    transient long inicio;
+}
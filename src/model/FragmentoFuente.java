@@ -0,0 +1,109 @@
+/**
+ * Vista de solo lectura sobre un tramo [inicio, fin) del código fuente.
+ * No copia caracteres: el texto se materializa solo al llamar a {@link #toString()}.
+ */
+public final class FragmentoFuente implements CharSequence {
+    private final String fuente;
+    private final int inicio;
+    private final int fin;
+
+    public FragmentoFuente(String fuente, int inicio, int fin) {
+        if (inicio < 0 || fin > fuente.length() || inicio > fin) {
+            throw new IndexOutOfBoundsException("Fragmento inválido [" + inicio + ", " + fin + ") de " + fuente.length());
+        }
+        this.fuente = fuente;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    public String getFuente() {
+        return fuente;
+    }
+
+    public int getInicio() {
+        return inicio;
+    }
+
+    public int getFin() {
+        return fin;
+    }
+
+    @Override
+    public int length() {
+        return fin - inicio;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= fin - inicio) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de un fragmento de largo " + (fin - inicio));
+        }
+        return fuente.charAt(inicio + index);
+    }
+
+    @Override
+    public FragmentoFuente subSequence(int desde, int hasta) {
+        if (desde < 0 || hasta > fin - inicio || desde > hasta) {
+            throw new IndexOutOfBoundsException("Subfragmento inválido [" + desde + ", " + hasta + ")");
+        }
+        return new FragmentoFuente(fuente, inicio + desde, inicio + hasta);
+    }
+
+    public boolean isEmpty() {
+        return inicio == fin;
+    }
+
+    // Igual que String.trim(), pero retorna otra vista en lugar de una copia
+    public FragmentoFuente trim() {
+        int i = inicio;
+        int j = fin;
+        while (i < j && fuente.charAt(i) <= ' ') i++;
+        while (j > i && fuente.charAt(j - 1) <= ' ') j--;
+        return i == inicio && j == fin ? this : new FragmentoFuente(fuente, i, j);
+    }
+
+    // Compara sin distinguir mayúsculas el comienzo del fragmento con 'palabra' (en minúsculas)
+    public boolean empiezaCon(String palabra) {
+        return palabra.length() <= length() && fuente.regionMatches(true, inicio, palabra, 0, palabra.length());
+    }
+
+    // Posición (relativa) de la primera aparición de 'palabra' sin distinguir mayúsculas, o -1
+    public int indiceDe(String palabra) {
+        int largo = palabra.length();
+        for (int i = inicio; i + largo <= fin; i++) {
+            if (fuente.regionMatches(true, i, palabra, 0, largo)) return i - inicio;
+        }
+        return -1;
+    }
+
+    // Posición (relativa) de la última aparición de 'palabra' sin distinguir mayúsculas, o -1
+    public int ultimoIndiceDe(String palabra) {
+        int largo = palabra.length();
+        for (int i = fin - largo; i >= inicio; i--) {
+            if (fuente.regionMatches(true, i, palabra, 0, largo)) return i - inicio;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return fuente.substring(inicio, fin);
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) return true;
+        if (!(otro instanceof FragmentoFuente)) return false;
+        FragmentoFuente f = (FragmentoFuente) otro;
+        return length() == f.length() && fuente.regionMatches(inicio, f.fuente, f.inicio, length());
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = inicio; i < fin; i++) {
+            h = 31 * h + fuente.charAt(i);
+        }
+        return h;
+    }
+}
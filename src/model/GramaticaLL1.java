@@ -0,0 +1,301 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gramática libre de contexto declarada como texto, con los conjuntos FIRST/FOLLOW y la
+ * tabla de análisis predictivo LL(1) calculados una sola vez al construirla.
+ *
+ * Formato: una regla por línea, "noTerminal -> alternativa | alternativa". Los terminales
+ * son los nombres recibidos en el constructor (en MAYÚSCULAS por convención), las acciones
+ * semánticas empiezan con '#' y "ε" es la alternativa vacía. El lado izquierdo de la primera
+ * regla es el símbolo inicial. Si la gramática no es LL(1) el constructor lo informa.
+ *
+ * Los símbolos se codifican como enteros: primero los terminales (en el orden recibido),
+ * luego los no terminales y al final las acciones (también en el orden recibido).
+ */
+public final class GramaticaLL1 {
+    public static final String VACIO = "ε";
+
+    private final String[] terminales;
+    private final String[] acciones;
+    private final List<String> noTerminales = new ArrayList<>();
+    private final Map<String, Integer> codigos = new HashMap<>();
+
+    private final List<Integer> izquierdos = new ArrayList<>();
+    private final List<int[]> derechos = new ArrayList<>();
+
+    private boolean[] anulable;
+    private boolean[][] primeros;
+    private boolean[][] siguientes;
+    // tabla[noTerminal][terminal] = índice de producción, o -1
+    private int[][] tabla;
+
+    public GramaticaLL1(String glc, String[] terminales, String[] acciones) {
+        this.terminales = terminales.clone();
+        this.acciones = acciones.clone();
+        for (int t = 0; t < terminales.length; t++) {
+            codigos.put(terminales[t], t);
+        }
+        leer(glc);
+        calcularAnulables();
+        calcularPrimeros();
+        calcularSiguientes();
+        construirTabla();
+    }
+
+    // ============== Lectura de la definición ==============
+
+    private void leer(String glc) {
+        List<String[]> reglas = new ArrayList<>();
+        for (String linea : glc.split("\n")) {
+            linea = linea.trim();
+            if (linea.isEmpty()) {
+                continue;
+            }
+            int flecha = linea.indexOf("->");
+            if (flecha == -1) {
+                throw new IllegalArgumentException("Regla sin '->': " + linea);
+            }
+            String izquierdo = linea.substring(0, flecha).trim();
+            if (codigos.containsKey(izquierdo) || izquierdo.startsWith("#")) {
+                throw new IllegalArgumentException("El lado izquierdo debe ser un no terminal: " + linea);
+            }
+            if (!noTerminales.contains(izquierdo)) {
+                noTerminales.add(izquierdo);
+            }
+            reglas.add(new String[] { izquierdo, linea.substring(flecha + 2) });
+        }
+        if (noTerminales.isEmpty()) {
+            throw new IllegalArgumentException("La gramática no tiene reglas");
+        }
+        int base = terminales.length;
+        for (int n = 0; n < noTerminales.size(); n++) {
+            codigos.put(noTerminales.get(n), base + n);
+        }
+        base += noTerminales.size();
+        for (int a = 0; a < acciones.length; a++) {
+            codigos.put(acciones[a], base + a);
+        }
+
+        for (String[] regla : reglas) {
+            int izquierdo = codigos.get(regla[0]);
+            for (String alternativa : regla[1].split("\\|")) {
+                String[] partes = alternativa.trim().split("\\s+");
+                List<Integer> simbolos = new ArrayList<>();
+                for (String parte : partes) {
+                    if (parte.isEmpty() || parte.equals(VACIO)) {
+                        continue;
+                    }
+                    Integer codigo = codigos.get(parte);
+                    if (codigo == null) {
+                        throw new IllegalArgumentException("Símbolo desconocido '" + parte + "' en la regla de " + regla[0]);
+                    }
+                    simbolos.add(codigo);
+                }
+                int[] derecho = new int[simbolos.size()];
+                for (int i = 0; i < derecho.length; i++) {
+                    derecho[i] = simbolos.get(i);
+                }
+                izquierdos.add(izquierdo);
+                derechos.add(derecho);
+            }
+        }
+    }
+
+    // ============== FIRST / FOLLOW / tabla ==============
+
+    private void calcularAnulables() {
+        anulable = new boolean[noTerminales.size()];
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int p = 0; p < derechos.size(); p++) {
+                int a = indiceNoTerminal(izquierdos.get(p));
+                if (!anulable[a] && secuenciaAnulable(derechos.get(p), 0)) {
+                    anulable[a] = true;
+                    cambio = true;
+                }
+            }
+        }
+    }
+
+    private void calcularPrimeros() {
+        primeros = new boolean[noTerminales.size()][terminales.length];
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int p = 0; p < derechos.size(); p++) {
+                cambio |= agregarPrimeros(derechos.get(p), 0, primeros[indiceNoTerminal(izquierdos.get(p))]);
+            }
+        }
+    }
+
+    private void calcularSiguientes() {
+        siguientes = new boolean[noTerminales.size()][terminales.length];
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int p = 0; p < derechos.size(); p++) {
+                int[] derecho = derechos.get(p);
+                for (int i = 0; i < derecho.length; i++) {
+                    if (!esNoTerminal(derecho[i])) {
+                        continue;
+                    }
+                    boolean[] destino = siguientes[indiceNoTerminal(derecho[i])];
+                    cambio |= agregarPrimeros(derecho, i + 1, destino);
+                    if (secuenciaAnulable(derecho, i + 1)) {
+                        cambio |= unir(destino, siguientes[indiceNoTerminal(izquierdos.get(p))]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void construirTabla() {
+        tabla = new int[noTerminales.size()][terminales.length];
+        for (int[] fila : tabla) {
+            Arrays.fill(fila, -1);
+        }
+        for (int p = 0; p < derechos.size(); p++) {
+            int a = indiceNoTerminal(izquierdos.get(p));
+            boolean[] prediccion = new boolean[terminales.length];
+            agregarPrimeros(derechos.get(p), 0, prediccion);
+            if (secuenciaAnulable(derechos.get(p), 0)) {
+                unir(prediccion, siguientes[a]);
+            }
+            for (int t = 0; t < terminales.length; t++) {
+                if (!prediccion[t]) {
+                    continue;
+                }
+                if (tabla[a][t] != -1 && tabla[a][t] != p) {
+                    throw new IllegalStateException("La gramática no es LL(1): conflicto en " + noTerminales.get(a)
+                            + " con " + terminales[t]);
+                }
+                tabla[a][t] = p;
+            }
+        }
+    }
+
+    // FIRST de derecho[desde..] agregado a 'destino'; retorna true si agregó algo
+    private boolean agregarPrimeros(int[] derecho, int desde, boolean[] destino) {
+        boolean cambio = false;
+        for (int i = desde; i < derecho.length; i++) {
+            int simbolo = derecho[i];
+            if (esAccion(simbolo)) {
+                continue;
+            }
+            if (esTerminal(simbolo)) {
+                cambio |= !destino[simbolo];
+                destino[simbolo] = true;
+                return cambio;
+            }
+            int n = indiceNoTerminal(simbolo);
+            cambio |= unir(destino, primeros[n]);
+            if (!anulable[n]) {
+                return cambio;
+            }
+        }
+        return cambio;
+    }
+
+    private boolean secuenciaAnulable(int[] derecho, int desde) {
+        for (int i = desde; i < derecho.length; i++) {
+            int simbolo = derecho[i];
+            if (esTerminal(simbolo) || (esNoTerminal(simbolo) && !anulable[indiceNoTerminal(simbolo)])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean unir(boolean[] destino, boolean[] origen) {
+        boolean cambio = false;
+        for (int i = 0; i < destino.length; i++) {
+            if (origen[i] && !destino[i]) {
+                destino[i] = true;
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    // ============== Consultas ==============
+
+    public int simboloInicial() {
+        return terminales.length;
+    }
+
+    public int codigo(String simbolo) {
+        Integer codigo = codigos.get(simbolo);
+        if (codigo == null) {
+            throw new IllegalArgumentException("Símbolo desconocido: " + simbolo);
+        }
+        return codigo;
+    }
+
+    public boolean esTerminal(int simbolo) {
+        return simbolo < terminales.length;
+    }
+
+    public boolean esNoTerminal(int simbolo) {
+        return simbolo >= terminales.length && simbolo < terminales.length + noTerminales.size();
+    }
+
+    public boolean esAccion(int simbolo) {
+        return simbolo >= terminales.length + noTerminales.size();
+    }
+
+    // Índice de la acción dentro del arreglo recibido en el constructor
+    public int accion(int simbolo) {
+        return simbolo - terminales.length - noTerminales.size();
+    }
+
+    // Producción a usar para expandir 'noTerminal' viendo 'terminal', o -1 si no hay
+    public int prediccion(int noTerminal, int terminal) {
+        return tabla[indiceNoTerminal(noTerminal)][terminal];
+    }
+
+    public int[] ladoDerecho(int produccion) {
+        return derechos.get(produccion);
+    }
+
+    public boolean esAnulable(int noTerminal) {
+        return anulable[indiceNoTerminal(noTerminal)];
+    }
+
+    // Terminales con los que puede empezar 'noTerminal' (FIRST), para mensajes de error
+    public List<String> primeros(int noTerminal) {
+        return nombres(primeros[indiceNoTerminal(noTerminal)]);
+    }
+
+    public List<String> siguientes(int noTerminal) {
+        return nombres(siguientes[indiceNoTerminal(noTerminal)]);
+    }
+
+    public String nombre(int simbolo) {
+        if (esTerminal(simbolo)) {
+            return terminales[simbolo];
+        }
+        if (esNoTerminal(simbolo)) {
+            return noTerminales.get(indiceNoTerminal(simbolo));
+        }
+        return acciones[accion(simbolo)];
+    }
+
+    private List<String> nombres(boolean[] conjunto) {
+        List<String> nombres = new ArrayList<>();
+        for (int t = 0; t < conjunto.length; t++) {
+            if (conjunto[t]) {
+                nombres.add(terminales[t]);
+            }
+        }
+        return nombres;
+    }
+
+    private int indiceNoTerminal(int simbolo) {
+        return simbolo - terminales.length;
+    }
+}
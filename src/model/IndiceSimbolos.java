@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de símbolos de muchos documentos: dónde se declara o se asigna cada nombre.
+ *
+ * Cada documento aporta su {@link TablaSimbolos}; el índice agrupa los símbolos por nombre en un
+ * HashMap, así que buscar un nombre es O(1) más las referencias encontradas, sin recorrer los
+ * árboles ni su texto. Los nombres ordenados para buscar por prefijo (O(log n)) se calculan la
+ * primera vez que se piden después de agregar documentos.
+ *
+ * No es seguro entre hilos: los hilos que analizan arman cada uno su tabla o su índice y al
+ * final se juntan con {@link #agregar} o {@link #combinar}.
+ */
+public final class IndiceSimbolos {
+
+    // Un símbolo y el documento (ruta, URI o el nombre que use quien arma el índice) donde está
+    public static final class Referencia {
+        private final String documento;
+        private final TablaSimbolos.Simbolo simbolo;
+
+        Referencia(String documento, TablaSimbolos.Simbolo simbolo) {
+            this.documento = documento;
+            this.simbolo = simbolo;
+        }
+
+        public String getDocumento() {
+            return documento;
+        }
+
+        public TablaSimbolos.Simbolo getSimbolo() {
+            return simbolo;
+        }
+
+        // "src/Cuenta.java:12:9: Atributo int saldo = 0 (Programa > Clase Cuenta)"
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(documento);
+            if (simbolo.getLinea() > 0) {
+                sb.append(':').append(simbolo.getLinea()).append(':').append(simbolo.getColumna());
+            }
+            sb.append(": ").append(simbolo.getDescripcion());
+            return sb.append(" (").append(simbolo.getAmbito().getRuta()).append(')').toString();
+        }
+    }
+
+    private final Map<String, List<Referencia>> porNombre = new HashMap<>();
+    private String[] nombresOrdenados;
+    private int documentos;
+    private int referencias;
+
+    public void agregar(String documento, TablaSimbolos tabla) {
+        for (TablaSimbolos.Simbolo simbolo : tabla.getSimbolos()) {
+            porNombre.computeIfAbsent(simbolo.getNombre(), n -> new ArrayList<>(2)).add(new Referencia(documento, simbolo));
+        }
+        documentos++;
+        referencias += tabla.getSimbolos().size();
+        nombresOrdenados = null;
+    }
+
+    // Agrega las referencias de otro índice (por ejemplo, el de otro hilo) después de las propias
+    public void combinar(IndiceSimbolos otro) {
+        for (Map.Entry<String, List<Referencia>> entrada : otro.porNombre.entrySet()) {
+            porNombre.computeIfAbsent(entrada.getKey(), n -> new ArrayList<>(entrada.getValue().size())).addAll(entrada.getValue());
+        }
+        documentos += otro.documentos;
+        referencias += otro.referencias;
+        nombresOrdenados = null;
+    }
+
+    // Todas las referencias al nombre (declaraciones y asignaciones), en el orden en que se agregaron
+    public List<Referencia> buscar(String nombre) {
+        List<Referencia> encontradas = porNombre.get(nombre);
+        return encontradas == null ? Collections.emptyList() : Collections.unmodifiableList(encontradas);
+    }
+
+    // Dónde se declara: clases, métodos, parámetros, atributos y variables
+    public List<Referencia> declaraciones(String nombre) {
+        List<Referencia> encontradas = new ArrayList<>();
+        for (Referencia referencia : buscar(nombre)) {
+            if (referencia.simbolo.esDeclaracion()) encontradas.add(referencia);
+        }
+        return encontradas;
+    }
+
+    // Dónde recibe un valor: asignaciones del pseudocódigo y declaraciones con valor inicial
+    public List<Referencia> asignaciones(String nombre) {
+        List<Referencia> encontradas = new ArrayList<>();
+        for (Referencia referencia : buscar(nombre)) {
+            if (referencia.simbolo.esAsignacion()) encontradas.add(referencia);
+        }
+        return encontradas;
+    }
+
+    // Nombres que empiezan con 'prefijo', en orden alfabético (búsqueda binaria sobre los nombres)
+    public List<String> nombresConPrefijo(String prefijo) {
+        String[] nombres = ordenados();
+        int desde = Arrays.binarySearch(nombres, prefijo);
+        if (desde < 0) {
+            desde = -desde - 1;
+        }
+        List<String> encontrados = new ArrayList<>();
+        for (int i = desde; i < nombres.length && nombres[i].startsWith(prefijo); i++) {
+            encontrados.add(nombres[i]);
+        }
+        return encontrados;
+    }
+
+    private String[] ordenados() {
+        String[] nombres = nombresOrdenados;
+        if (nombres == null) {
+            nombres = porNombre.keySet().toArray(new String[0]);
+            Arrays.sort(nombres);
+            nombresOrdenados = nombres;
+        }
+        return nombres;
+    }
+
+    public int getDocumentos() {
+        return documentos;
+    }
+
+    public int getNombres() {
+        return porNombre.size();
+    }
+
+    public int getReferencias() {
+        return referencias;
+    }
+
+    @Override
+    public String toString() {
+        return "Índice de símbolos: " + documentos + " documentos, " + porNombre.size() + " nombres, " + referencias + " referencias";
+    }
+}
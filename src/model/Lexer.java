@@ -0,0 +1,159 @@
+/**
+ * Analizador léxico escrito a mano para el modo Java.
+ * Recorre el código una sola vez y produce un {@link TokenStream} con
+ * (tipo, inicio, fin) por token. Espacios y comentarios se descartan.
+ */
+public class Lexer {
+    // Tipos de token
+    public static final byte IDENTIFICADOR = 0;
+    public static final byte NUMERO = 1;
+    public static final byte CADENA = 2;
+    public static final byte CARACTER = 3;
+    public static final byte LLAVE_ABRE = 4;
+    public static final byte LLAVE_CIERRA = 5;
+    public static final byte PAREN_ABRE = 6;
+    public static final byte PAREN_CIERRA = 7;
+    public static final byte CORCHETE_ABRE = 8;
+    public static final byte CORCHETE_CIERRA = 9;
+    public static final byte MENOR = 10;
+    public static final byte MAYOR = 11;
+    public static final byte PUNTO_Y_COMA = 12;
+    public static final byte IGUAL = 13;
+    public static final byte COMA = 14;
+    public static final byte PUNTO = 15;
+    public static final byte OPERADOR = 16;
+    public static final byte OTRO = 17;
+
+    private Lexer() {
+    }
+
+    public static TokenStream tokenizar(String codigo) {
+        return tokenizar(codigo, 0, codigo.length());
+    }
+
+    // Tokeniza solo codigo[desde, hasta) (una región de un documento mixto); las posiciones
+    // de los tokens siguen siendo las del documento completo
+    public static TokenStream tokenizar(String codigo, int desde, int hasta) {
+        int n = hasta;
+        // Estimación: en código Java típico hay un token cada 4-5 caracteres
+        TokenStream tokens = new TokenStream(codigo, (hasta - desde) / 4);
+        int i = desde;
+        while (i < n) {
+            char c = codigo.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            // Comentarios
+            if (c == '/' && i + 1 < n) {
+                char sig = codigo.charAt(i + 1);
+                if (sig == '/') {
+                    i += 2;
+                    while (i < n && codigo.charAt(i) != '\n') i++;
+                    continue;
+                }
+                if (sig == '*') {
+                    // El cierre se busca solo hasta el fin de la región: un '/*' sin cerrar no recorre
+                    // el resto del documento
+                    int j = i + 2;
+                    while (j + 1 < n && !(codigo.charAt(j) == '*' && codigo.charAt(j + 1) == '/')) j++;
+                    i = j + 1 < n ? j + 2 : n;
+                    continue;
+                }
+            }
+
+            int inicio = i;
+            if (Character.isJavaIdentifierStart(c)) {
+                i++;
+                while (i < n && Character.isJavaIdentifierPart(codigo.charAt(i))) i++;
+                tokens.agregar(IDENTIFICADOR, inicio, i);
+                continue;
+            }
+            if (Character.isDigit(c)) {
+                i++;
+                while (i < n && (Character.isLetterOrDigit(codigo.charAt(i)) || codigo.charAt(i) == '.' || codigo.charAt(i) == '_')) i++;
+                tokens.agregar(NUMERO, inicio, i);
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                i = finDeLiteral(codigo, i, n, c);
+                tokens.agregar(c == '"' ? CADENA : CARACTER, inicio, i);
+                continue;
+            }
+
+            switch (c) {
+                case '{': tokens.agregar(LLAVE_ABRE, i, ++i); break;
+                case '}': tokens.agregar(LLAVE_CIERRA, i, ++i); break;
+                case '(': tokens.agregar(PAREN_ABRE, i, ++i); break;
+                case ')': tokens.agregar(PAREN_CIERRA, i, ++i); break;
+                case '[': tokens.agregar(CORCHETE_ABRE, i, ++i); break;
+                case ']': tokens.agregar(CORCHETE_CIERRA, i, ++i); break;
+                case ';': tokens.agregar(PUNTO_Y_COMA, i, ++i); break;
+                case ',': tokens.agregar(COMA, i, ++i); break;
+                case '.': tokens.agregar(PUNTO, i, ++i); break;
+                case '<':
+                case '>':
+                    // '<' y '>' se emiten siempre sueltos (salvo '<=' y '>=') para poder cerrar genéricos anidados
+                    if (i + 1 < n && codigo.charAt(i + 1) == '=') {
+                        tokens.agregar(OPERADOR, i, i += 2);
+                    } else {
+                        tokens.agregar(c == '<' ? MENOR : MAYOR, i, ++i);
+                    }
+                    break;
+                case '=':
+                    if (i + 1 < n && codigo.charAt(i + 1) == '=') {
+                        tokens.agregar(OPERADOR, i, i += 2);
+                    } else {
+                        tokens.agregar(IGUAL, i, ++i);
+                    }
+                    break;
+                case '+': case '-': case '*': case '/': case '%':
+                case '!': case '&': case '|': case '^': case '~':
+                case '?': case ':':
+                    i++;
+                    // Operadores compuestos: ++, +=, &&, ->, ::, etc. Un "//" o "/*" pegado
+                    // al operador ("i++/* x */") es un comentario, no parte del operador
+                    while (i < n && esCaracterDeOperador(codigo.charAt(i)) && !empiezaComentario(codigo, i, n)) i++;
+                    tokens.agregar(OPERADOR, inicio, i);
+                    break;
+                default:
+                    tokens.agregar(OTRO, i, ++i);
+            }
+        }
+        tokens.indexarLlaves();
+        return tokens;
+    }
+
+    private static int finDeLiteral(String codigo, int inicio, int n, char comilla) {
+        int i = inicio + 1;
+        while (i < n) {
+            char c = codigo.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == comilla || c == '\n') {
+                break;
+            }
+        }
+        return Math.min(i, n);
+    }
+
+    private static boolean empiezaComentario(String codigo, int i, int n) {
+        return codigo.charAt(i) == '/' && i + 1 < n && (codigo.charAt(i + 1) == '/' || codigo.charAt(i + 1) == '*');
+    }
+
+    private static boolean esCaracterDeOperador(char c) {
+        switch (c) {
+            case '+': case '-': case '*': case '/': case '%':
+            case '!': case '&': case '|': case '^': case '~':
+            case ':': case '=':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentación del analizador: tiempo por fase, contadores e histograma de tamaño de
+ * entrada contra latencia.
+ *
+ * Se activa con -Danalizador.metricas=true. {@link #ACTIVAS} es una constante, así que con
+ * las métricas desactivadas el JIT elimina cada punto de medición y no cuestan nada. Activas,
+ * cada medición son dos lecturas de System.nanoTime() y sumas en LongAdder (sin candados entre
+ * los hilos del análisis en paralelo). Los datos se consultan con {@link #instantanea()}, por
+ * JMX (AnalizadorSintactico:type=Metricas) y cada análisis emite un evento de JFR
+ * ({@link EventoAnalisis}).
+ */
+public final class Metricas {
+    public static final boolean ACTIVAS = Boolean.getBoolean("analizador.metricas");
+
+    public enum Fase {
+        ANALISIS("Análisis completo"),
+        DETECCION_MODO("Detección de modo"),
+        TOKENIZACION("Tokenización"),
+        CLASES_Y_METODOS("Clases y métodos"),
+        ESPANOL("Pseudocódigo en español"),
+        REPORTE_CARACTERES("Reporte de caracteres"),
+        RENDERIZADO("Árbol de texto");
+
+        private final String nombre;
+
+        Fase(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    public enum Contador {
+        DOCUMENTOS("Documentos"),
+        CARACTERES("Caracteres analizados"),
+        REGIONES("Regiones"),
+        TOKENS("Tokens"),
+        CLASES("Clases"),
+        METODOS("Métodos"),
+        DECLARACIONES("Declaraciones"),
+        ESTRUCTURAS("Estructuras de control"),
+        LINEAS_ESPANOL("Líneas en español"),
+        EXTRAER_BLOQUE("Llamadas a extraerBloque"),
+        DIAGNOSTICOS("Diagnósticos");
+
+        private final String nombre;
+
+        Contador(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    // Histograma: caracteres de entrada (hasta 1K, 4K, ... 4M y más) contra milisegundos
+    // (hasta 0,1 / 1 / 10 / 100 / 1000 y más)
+    static final String[] TAMANOS = { "≤1K", "≤4K", "≤16K", "≤64K", "≤256K", "≤1M", "≤4M", ">4M" };
+    static final String[] LATENCIAS = { "≤0,1 ms", "≤1 ms", "≤10 ms", "≤100 ms", "≤1 s", ">1 s" };
+
+    private static final LongAdder[] NANOS = sumadores(Fase.values().length);
+    private static final LongAdder[] LLAMADAS = sumadores(Fase.values().length);
+    private static final LongAdder[] CONTADORES = sumadores(Contador.values().length);
+    private static final AtomicLongArray HISTOGRAMA = new AtomicLongArray(TAMANOS.length * LATENCIAS.length);
+
+    static {
+        if (ACTIVAS) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName("AnalizadorSintactico:type=Metricas"));
+            } catch (JMException e) {
+                System.err.println("Advertencia: no se pudieron publicar las métricas por JMX: " + e.getMessage());
+            }
+        }
+    }
+
+    private Metricas() {
+    }
+
+    private static LongAdder[] sumadores(int cantidad) {
+        LongAdder[] sumadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            sumadores[i] = new LongAdder();
+        }
+        return sumadores;
+    }
+
+    // ============== Puntos de medición ==============
+
+    // Marca de inicio para registrar(); 0 si las métricas están desactivadas
+    public static long inicio() {
+        return ACTIVAS ? System.nanoTime() : 0;
+    }
+
+    public static void registrar(Fase fase, long inicio) {
+        if (ACTIVAS) {
+            NANOS[fase.ordinal()].add(System.nanoTime() - inicio);
+            LLAMADAS[fase.ordinal()].increment();
+        }
+    }
+
+    public static void contar(Contador contador) {
+        if (ACTIVAS) {
+            CONTADORES[contador.ordinal()].increment();
+        }
+    }
+
+    public static void sumar(Contador contador, long cantidad) {
+        if (ACTIVAS) {
+            CONTADORES[contador.ordinal()].add(cantidad);
+        }
+    }
+
+    // Un documento completo: abre el evento de JFR (null si las métricas están desactivadas)
+    static EventoAnalisis iniciarAnalisis() {
+        if (!ACTIVAS) {
+            return null;
+        }
+        EventoAnalisis evento = new EventoAnalisis();
+        evento.inicio = System.nanoTime();
+        evento.begin();
+        return evento;
+    }
+
+    static void terminarAnalisis(EventoAnalisis evento, CharSequence codigo, ModoAnalisis modo, Ast.Programa programa) {
+        if (!ACTIVAS || evento == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - evento.inicio;
+        int caracteres = codigo == null ? 0 : codigo.length();
+        NANOS[Fase.ANALISIS.ordinal()].add(nanos);
+        LLAMADAS[Fase.ANALISIS.ordinal()].increment();
+        CONTADORES[Contador.DOCUMENTOS.ordinal()].increment();
+        CONTADORES[Contador.CARACTERES.ordinal()].add(caracteres);
+        CONTADORES[Contador.DIAGNOSTICOS.ordinal()].add(programa.getDiagnosticos().size());
+        HISTOGRAMA.incrementAndGet(indiceTamano(caracteres) * LATENCIAS.length + indiceLatencia(nanos));
+
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.caracteres = caracteres;
+            evento.modo = modo.name();
+            evento.elementos = programa.getElementos().size();
+            evento.diagnosticos = programa.getDiagnosticos().size();
+            evento.commit();
+        }
+    }
+
+    static int indiceTamano(long caracteres) {
+        int indice = 0;
+        long limite = 1024;
+        while (indice < TAMANOS.length - 1 && caracteres > limite) {
+            indice++;
+            limite *= 4;
+        }
+        return indice;
+    }
+
+    static int indiceLatencia(long nanos) {
+        int indice = 0;
+        long limite = 100_000;
+        while (indice < LATENCIAS.length - 1 && nanos > limite) {
+            indice++;
+            limite *= 10;
+        }
+        return indice;
+    }
+
+    // ============== Consulta ==============
+
+    public static Instantanea instantanea() {
+        return new Instantanea();
+    }
+
+    // Vuelve todos los valores a cero (por ejemplo, entre dos mediciones)
+    public static void reiniciar() {
+        for (LongAdder sumador : NANOS) sumador.reset();
+        for (LongAdder sumador : LLAMADAS) sumador.reset();
+        for (LongAdder sumador : CONTADORES) sumador.reset();
+        for (int i = 0; i < HISTOGRAMA.length(); i++) HISTOGRAMA.set(i, 0);
+    }
+
+    /**
+     * Copia de los valores en un momento dado. Cada valor se lee por separado, así que con
+     * análisis en curso la copia puede mezclar valores de un instante y del siguiente.
+     */
+    public static final class Instantanea {
+        private final long[] nanos = new long[NANOS.length];
+        private final long[] llamadas = new long[LLAMADAS.length];
+        private final long[] contadores = new long[CONTADORES.length];
+        private final long[][] histograma = new long[TAMANOS.length][LATENCIAS.length];
+
+        private Instantanea() {
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = NANOS[i].sum();
+                llamadas[i] = LLAMADAS[i].sum();
+            }
+            for (int i = 0; i < contadores.length; i++) {
+                contadores[i] = CONTADORES[i].sum();
+            }
+            for (int t = 0; t < TAMANOS.length; t++) {
+                for (int l = 0; l < LATENCIAS.length; l++) {
+                    histograma[t][l] = HISTOGRAMA.get(t * LATENCIAS.length + l);
+                }
+            }
+        }
+
+        public long getNanos(Fase fase) {
+            return nanos[fase.ordinal()];
+        }
+
+        public long getLlamadas(Fase fase) {
+            return llamadas[fase.ordinal()];
+        }
+
+        public long getContador(Contador contador) {
+            return contadores[contador.ordinal()];
+        }
+
+        // [tamaño][latencia] = documentos; los rangos están en getTamanos() / getLatencias()
+        public long[][] getHistograma() {
+            long[][] copia = new long[histograma.length][];
+            for (int t = 0; t < histograma.length; t++) {
+                copia[t] = histograma[t].clone();
+            }
+            return copia;
+        }
+
+        public static String[] getTamanos() {
+            return TAMANOS.clone();
+        }
+
+        public static String[] getLatencias() {
+            return LATENCIAS.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Métricas del analizador").append(ACTIVAS ? "" : " (desactivadas)").append('\n');
+            sb.append("Fases:\n");
+            for (Fase fase : Fase.values()) {
+                long n = getLlamadas(fase);
+                if (n > 0) {
+                    double ms = getNanos(fase) / 1e6;
+                    sb.append(String.format(Locale.ROOT, "  %s: %d llamadas, %.3f ms (%.1f µs c/u)%n",
+                            fase.getNombre(), n, ms, ms * 1000 / n));
+                }
+            }
+            sb.append("Contadores:\n");
+            for (Contador contador : Contador.values()) {
+                sb.append("  ").append(contador.getNombre()).append(": ").append(getContador(contador)).append('\n');
+            }
+            sb.append("Caracteres contra latencia (documentos):\n");
+            for (int t = 0; t < TAMANOS.length; t++) {
+                StringBuilder fila = new StringBuilder();
+                for (int l = 0; l < LATENCIAS.length; l++) {
+                    if (histograma[t][l] > 0) {
+                        fila.append(fila.length() == 0 ? "" : ", ").append(LATENCIAS[l]).append(": ").append(histograma[t][l]);
+                    }
+                }
+                if (fila.length() > 0) {
+                    sb.append("  ").append(TAMANOS[t]).append(" caracteres: ").append(fila).append('\n');
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // ============== JMX ==============
+
+    private static final class Bean implements MetricasAnalizadorMXBean {
+        @Override
+        public Map<String, Long> getMilisegundosPorFase() {
+            Instantanea actual = instantanea();
+            Map<String, Long> valores = new LinkedHashMap<>();
+            for (Fase fase : Fase.values()) {
+                valores.put(fase.getNombre(), actual.getNanos(fase) / 1_000_000);
+            }
+            return valores;
+        }
+
+        @Override
+        public Map<String, Long> getLlamadasPorFase() {
+            Instantanea actual = instantanea();
+            Map<String, Long> valores = new LinkedHashMap<>();
+            for (Fase fase : Fase.values()) {
+                valores.put(fase.getNombre(), actual.getLlamadas(fase));
+            }
+            return valores;
+        }
+
+        @Override
+        public Map<String, Long> getContadores() {
+            Instantanea actual = instantanea();
+            Map<String, Long> valores = new LinkedHashMap<>();
+            for (Contador contador : Contador.values()) {
+                valores.put(contador.getNombre(), actual.getContador(contador));
+            }
+            return valores;
+        }
+
+        @Override
+        public long[][] getHistograma() {
+            return instantanea().getHistograma();
+        }
+
+        @Override
+        public String getReporte() {
+            return instantanea().toString();
+        }
+
+        @Override
+        public void reiniciar() {
+            Metricas.reiniciar();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+import java.util.Map;
+
+/**
+ * Vista JMX de {@link Metricas} (AnalizadorSintactico:type=Metricas), para jconsole o
+ * cualquier cliente JMX. Solo se publica con -Danalizador.metricas=true.
+ */
+public interface MetricasAnalizadorMXBean {
+    Map<String, Long> getMilisegundosPorFase();
+
+    Map<String, Long> getLlamadasPorFase();
+
+    Map<String, Long> getContadores();
+
+    // [tamaño de entrada][latencia] = documentos (los rangos se describen en getReporte())
+    long[][] getHistograma();
+
+    String getReporte();
+
+    void reiniciar();
+}
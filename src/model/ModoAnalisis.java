@@ -0,0 +1,9 @@
+/**
+ * Gramática con la que se analiza un texto. AUTO decide por las palabras clave
+ * del código (ver SintaxisAnalizer); JAVA y ESPANOL fuerzan una de las dos.
+ */
+public enum ModoAnalisis {
+    AUTO,
+    JAVA,
+    ESPANOL
+}
@@ -0,0 +1,284 @@
+import java.util.Arrays;
+
+/**
+ * Reconocedor de palabras clave del modo español y de Java con un trie sobre arreglos.
+ *
+ * Una consulta recorre la palabra una sola vez (sin crear cadenas) y solo acepta
+ * coincidencias de palabra completa. Cada palabra tiene un índice estable y un conjunto
+ * de categorías; así el analizador, el segmentador y la detección de modo comparten
+ * la misma tabla.
+ */
+public final class PalabrasClave {
+    // Categorías (bits)
+    public static final int ESPANOL = 1;
+    // Abre o cierra un bloque del modo español
+    public static final int APERTURA_ESPANOL = 2;
+    public static final int CIERRE_ESPANOL = 4;
+    public static final int JAVA = 8;
+    // No puede ser tipo ni nombre en una declaración Java
+    public static final int RESERVADA = 16;
+    public static final int MODIFICADOR = 32;
+
+    private static final String[] PALABRAS;
+    private static final int[] CATEGORIAS;
+
+    private static final int LETRAS = 26;
+    // Trie: transiciones[nodo * 26 + letra] = nodo siguiente (0 = sin transición; la raíz es 0)
+    private static int[] transiciones = new int[LETRAS * 64];
+    // Palabra que termina en cada nodo, o -1
+    private static int[] palabraEnNodo = new int[64];
+    private static int nodos = 1;
+
+    static {
+        Object[][] definiciones = {
+            { "si", ESPANOL | APERTURA_ESPANOL },
+            { "entonces", ESPANOL },
+            { "sino", ESPANOL },
+            { "finsi", ESPANOL | CIERRE_ESPANOL },
+            { "mientras", ESPANOL | APERTURA_ESPANOL },
+            { "hacer", ESPANOL },
+            { "finmientras", ESPANOL | CIERRE_ESPANOL },
+            { "para", ESPANOL | APERTURA_ESPANOL },
+            { "finpara", ESPANOL | CIERRE_ESPANOL },
+            { "repetir", ESPANOL | APERTURA_ESPANOL },
+            { "hasta", ESPANOL | CIERRE_ESPANOL },
+
+            { "abstract", JAVA | RESERVADA | MODIFICADOR }, { "assert", JAVA | RESERVADA },
+            { "break", JAVA | RESERVADA }, { "case", JAVA | RESERVADA }, { "catch", JAVA | RESERVADA },
+            { "class", JAVA | RESERVADA }, { "continue", JAVA | RESERVADA },
+            { "default", JAVA | RESERVADA | MODIFICADOR }, { "do", JAVA | RESERVADA },
+            { "else", JAVA | RESERVADA }, { "enum", JAVA | RESERVADA }, { "extends", JAVA | RESERVADA },
+            { "final", JAVA | RESERVADA | MODIFICADOR }, { "finally", JAVA | RESERVADA },
+            { "for", JAVA | RESERVADA }, { "if", JAVA | RESERVADA }, { "implements", JAVA | RESERVADA },
+            { "import", JAVA | RESERVADA }, { "instanceof", JAVA | RESERVADA },
+            { "interface", JAVA | RESERVADA }, { "native", JAVA | RESERVADA | MODIFICADOR },
+            { "new", JAVA | RESERVADA }, { "package", JAVA | RESERVADA },
+            { "private", JAVA | RESERVADA | MODIFICADOR }, { "protected", JAVA | RESERVADA | MODIFICADOR },
+            { "public", JAVA | RESERVADA | MODIFICADOR }, { "return", JAVA | RESERVADA },
+            { "static", JAVA | RESERVADA | MODIFICADOR }, { "strictfp", JAVA | RESERVADA | MODIFICADOR },
+            { "super", JAVA | RESERVADA }, { "switch", JAVA | RESERVADA },
+            { "synchronized", JAVA | RESERVADA | MODIFICADOR }, { "this", JAVA | RESERVADA },
+            { "throw", JAVA | RESERVADA }, { "throws", JAVA | RESERVADA },
+            { "transient", JAVA | RESERVADA | MODIFICADOR }, { "try", JAVA | RESERVADA },
+            { "volatile", JAVA | RESERVADA | MODIFICADOR }, { "while", JAVA | RESERVADA },
+        };
+        PALABRAS = new String[definiciones.length];
+        CATEGORIAS = new int[definiciones.length];
+        for (int p = 0; p < definiciones.length; p++) {
+            PALABRAS[p] = (String) definiciones[p][0];
+            CATEGORIAS[p] = (Integer) definiciones[p][1];
+            insertar(PALABRAS[p], p);
+        }
+        transiciones = Arrays.copyOf(transiciones, nodos * LETRAS);
+        palabraEnNodo = Arrays.copyOf(palabraEnNodo, nodos);
+    }
+
+    // Marcas de Java para la detección de modo
+    private static final int CLASS = indice("class");
+    private static final int PUBLIC = indice("public");
+    private static final int IF = indice("if");
+    private static final int WHILE = indice("while");
+    private static final int PACKAGE = indice("package");
+    private static final int IMPORT = indice("import");
+
+    private PalabrasClave() {
+    }
+
+    private static void insertar(String palabra, int indice) {
+        int nodo = 0;
+        for (int i = 0; i < palabra.length(); i++) {
+            int letra = palabra.charAt(i) - 'a';
+            int siguiente = transiciones[nodo * LETRAS + letra];
+            if (siguiente == 0) {
+                if (nodos == palabraEnNodo.length) {
+                    palabraEnNodo = Arrays.copyOf(palabraEnNodo, nodos * 2);
+                    transiciones = Arrays.copyOf(transiciones, nodos * 2 * LETRAS);
+                }
+                palabraEnNodo[nodos] = -1;
+                siguiente = nodos++;
+                transiciones[nodo * LETRAS + letra] = siguiente;
+            }
+            nodo = siguiente;
+        }
+        palabraEnNodo[nodo] = indice;
+    }
+
+    // Índice de la palabra clave texto[desde, hasta) exacta (Java distingue mayúsculas), o -1
+    public static int buscar(CharSequence texto, int desde, int hasta) {
+        return recorrer(texto, desde, hasta, false);
+    }
+
+    // Igual, sin distinguir mayúsculas (modo español)
+    public static int buscarSinMayusculas(CharSequence texto, int desde, int hasta) {
+        return recorrer(texto, desde, hasta, true);
+    }
+
+    private static int recorrer(CharSequence texto, int desde, int hasta, boolean sinMayusculas) {
+        if (desde >= hasta) {
+            return -1;
+        }
+        int nodo = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (sinMayusculas && c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c < 'a' || c > 'z') {
+                return -1;
+            }
+            nodo = transiciones[nodo * LETRAS + (c - 'a')];
+            if (nodo == 0) {
+                return -1;
+            }
+        }
+        return palabraEnNodo[nodo];
+    }
+
+    // Índice de una palabra conocida (para armar tablas propias a partir del índice)
+    public static int indice(String palabra) {
+        int indice = buscar(palabra, 0, palabra.length());
+        if (indice == -1) {
+            throw new IllegalArgumentException("No es una palabra clave: " + palabra);
+        }
+        return indice;
+    }
+
+    public static int cantidad() {
+        return PALABRAS.length;
+    }
+
+    public static String palabra(int indice) {
+        return PALABRAS[indice];
+    }
+
+    // true si 'indice' es una palabra clave (!= -1) con alguna de las categorías indicadas
+    public static boolean es(int indice, int categorias) {
+        return indice != -1 && (CATEGORIAS[indice] & categorias) != 0;
+    }
+
+    // Índice de la primera palabra de 'texto' (hasta un espacio, tabulación o el final), sin distinguir mayúsculas
+    public static int primeraPalabra(CharSequence texto) {
+        int n = texto.length();
+        int i = 0;
+        while (i < n && Character.isWhitespace(texto.charAt(i))) i++;
+        int fin = i;
+        while (fin < n && texto.charAt(fin) != ' ' && texto.charAt(fin) != '\t') fin++;
+        return buscarSinMayusculas(texto, i, fin);
+    }
+
+    /**
+     * Detección de modo en una sola pasada: true si el texto tiene al menos dos palabras clave
+     * distintas del modo español (como palabras completas) y ninguna marca de Java ("class",
+     * "public", "if" / "while" seguidos de paréntesis, una línea que empieza con "package" o
+     * "import", o un ';' al final de una línea). Los comentarios y los literales de texto no
+     * cuentan: "// si falta, hacer import" no es pseudocódigo.
+     */
+    public static boolean esCodigoEspanol(CharSequence codigo) {
+        // Palabras del modo español ya vistas (sus índices son los primeros, menores que 64)
+        long vistas = 0;
+        int distintas = 0;
+        // Solo hubo espacios desde el último salto de línea
+        boolean inicioDeLinea = true;
+        int n = codigo.length();
+        int i = 0;
+        while (i < n) {
+            char c = codigo.charAt(i);
+            char sig = i + 1 < n ? codigo.charAt(i + 1) : '\0';
+            if (c == '\n') {
+                inicioDeLinea = true;
+                i++;
+                continue;
+            }
+            if (c == '/' && sig == '/') {
+                while (i < n && codigo.charAt(i) != '\n') i++;
+                continue;
+            }
+            if (c == '/' && sig == '*') {
+                i = finDeComentario(codigo, i + 2);
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                i = finDeLiteral(codigo, i);
+                inicioDeLinea = false;
+                continue;
+            }
+            if (c == ';' && terminaLinea(codigo, i + 1)) {
+                return false;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                if (c != ' ' && c != '\t' && c != '\r') {
+                    inicioDeLinea = false;
+                }
+                i++;
+                continue;
+            }
+            boolean primeraDeLinea = inicioDeLinea;
+            inicioDeLinea = false;
+            int inicio = i;
+            while (i < n && (Character.isLetterOrDigit(codigo.charAt(i)) || codigo.charAt(i) == '_')) i++;
+            int indice = buscarSinMayusculas(codigo, inicio, i);
+            if (indice == -1) {
+                continue;
+            }
+            if (es(indice, ESPANOL)) {
+                if ((vistas & (1L << indice)) == 0) {
+                    vistas |= 1L << indice;
+                    distintas++;
+                }
+            } else if (esMarcaJava(codigo, indice, i, primeraDeLinea)) {
+                return false;
+            }
+        }
+        return distintas >= 2;
+    }
+
+    private static boolean esMarcaJava(CharSequence codigo, int indice, int finPalabra, boolean primeraDeLinea) {
+        if (indice == CLASS || indice == PUBLIC) {
+            return true;
+        }
+        if (indice == PACKAGE || indice == IMPORT) {
+            return primeraDeLinea;
+        }
+        if (indice != IF && indice != WHILE) {
+            return false;
+        }
+        int j = finPalabra;
+        while (j < codigo.length() && (codigo.charAt(j) == ' ' || codigo.charAt(j) == '\t')) j++;
+        return j < codigo.length() && codigo.charAt(j) == '(';
+    }
+
+    // Posición después del '*/' que cierra un comentario de bloque (o el final, si no se cierra)
+    private static int finDeComentario(CharSequence codigo, int desde) {
+        int n = codigo.length();
+        int j = desde;
+        while (j + 1 < n && !(codigo.charAt(j) == '*' && codigo.charAt(j + 1) == '/')) j++;
+        return j + 1 < n ? j + 2 : n;
+    }
+
+    // Posición después de la comilla que cierra el literal que empieza en 'inicio'. Un literal
+    // sin cerrar termina en el salto de línea (un bloque de texto """, en su cierre)
+    private static int finDeLiteral(CharSequence codigo, int inicio) {
+        int n = codigo.length();
+        char comilla = codigo.charAt(inicio);
+        if (comilla == '"' && inicio + 2 < n && codigo.charAt(inicio + 1) == '"' && codigo.charAt(inicio + 2) == '"') {
+            int j = inicio + 3;
+            while (j + 2 < n && !(codigo.charAt(j) == '"' && codigo.charAt(j + 1) == '"' && codigo.charAt(j + 2) == '"')) {
+                j += codigo.charAt(j) == '\\' ? 2 : 1;
+            }
+            return Math.min(j + 3, n);
+        }
+        int j = inicio + 1;
+        while (j < n && codigo.charAt(j) != comilla && codigo.charAt(j) != '\n') {
+            j += codigo.charAt(j) == '\\' ? 2 : 1;
+        }
+        return j < n && codigo.charAt(j) == comilla ? j + 1 : Math.min(j, n);
+    }
+
+    // true si desde 'j' solo quedan espacios hasta el fin de la línea (o un comentario)
+    private static boolean terminaLinea(CharSequence codigo, int j) {
+        int n = codigo.length();
+        while (j < n && (codigo.charAt(j) == ' ' || codigo.charAt(j) == '\t' || codigo.charAt(j) == '\r')) j++;
+        return j == n || codigo.charAt(j) == '\n'
+                || (codigo.charAt(j) == '/' && j + 1 < n && (codigo.charAt(j + 1) == '/' || codigo.charAt(j + 1) == '*'));
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Resultado compacto del análisis carácter por carácter: arreglos paralelos con
+ * la posición, el carácter y la clase (ver {@link ClasificadorCaracteres}) de
+ * cada carácter que no es espacio en blanco.
+ */
+public final class ReporteCaracteres {
+    private final int[] posiciones;
+    private final char[] caracteres;
+    private final byte[] clases;
+    private final int cantidad;
+
+    ReporteCaracteres(int[] posiciones, char[] caracteres, byte[] clases, int cantidad) {
+        this.posiciones = posiciones;
+        this.caracteres = caracteres;
+        this.clases = clases;
+        this.cantidad = cantidad;
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    public int posicion(int k) {
+        return posiciones[k];
+    }
+
+    public char caracter(int k) {
+        return caracteres[k];
+    }
+
+    public byte clase(int k) {
+        return clases[k];
+    }
+
+    public String nombreClase(int k) {
+        return ClasificadorCaracteres.nombre(clases[k]);
+    }
+
+    // Memoria aproximada de los tres arreglos
+    public long bytesEstimados() {
+        return 4L * posiciones.length + 2L * caracteres.length + clases.length;
+    }
+
+    // Texto en el formato de mostrarCaracterPorCaracter()
+    @Override
+    public String toString() {
+        return ClasificadorCaracteres.reporte(this);
+    }
+}
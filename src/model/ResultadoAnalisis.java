@@ -0,0 +1,203 @@
+import java.util.List;
+
+/**
+ * Resultado de analizar un texto una sola vez: flujo de tokens, árbol y clasificación
+ * de caracteres. Los textos de cada panel se generan recién cuando se piden y se guardan,
+ * así que varios consumidores (o hilos) comparten el mismo cálculo.
+ *
+ * Un resultado que queda guardado mucho tiempo (ver CacheAnalisis) se compacta: el árbol pasa
+ * a {@link ArbolColumnar} y se sueltan los nodos y los tokens; el texto del árbol se vuelve a
+ * generar desde las columnas cada vez que se pide.
+ */
+public final class ResultadoAnalisis {
+    // Nodos del AST por carácter de código (medido: entre 2,5 y 3 bytes; los nodos leídos del disco, algo más)
+    private static final long BYTES_POR_CARACTER_ARBOL = 4;
+    // Un símbolo con su descripción y su posición
+    private static final long BYTES_POR_SIMBOLO = 96;
+
+    private final String codigo;
+    private final ModoAnalisis modo;
+    // Un resultado leído del disco (ver CacheAnalisis) trae el árbol ya armado (nodos leídos de
+    // su forma binaria); los tokens y las clases de caracteres se reconstruyen si alguien los pide. El modo español no tokeniza: lo mismo.
+    private volatile Ast.Programa programa;
+    private volatile ReporteCaracteres caracteres;
+    private volatile TokenStream tokens;
+    private volatile TablaSimbolos simbolos;
+    private volatile ArbolColumnar arbol;
+    // El árbol leído del disco o compactado no trae tipos ni posiciones: la tabla de símbolos vuelve
+    // a analizar, salvo que ya se haya armado antes de compactar (compactar la conserva)
+    private volatile boolean arbolLeido;
+
+    // Textos ya generados. Son inmutables: si dos hilos los generan a la vez, ambos quedan iguales
+    private volatile String textoCaracteres;
+    private volatile String textoAgrupado;
+    // Bytes del código y de los textos ya generados (ver bytesDeTexto), calculados una sola vez
+    private final long bytesCodigo;
+    private volatile long bytesTextos;
+
+    ResultadoAnalisis(String codigo, ModoAnalisis modo, Ast.Programa programa, TokenStream tokens, ReporteCaracteres caracteres) {
+        this.codigo = codigo;
+        this.bytesCodigo = bytesDeTexto(codigo);
+        this.modo = modo;
+        this.programa = programa;
+        this.tokens = tokens;
+        this.caracteres = caracteres;
+    }
+
+    // Resultado tal como se guarda en el disco: el código y el árbol deserializado
+    static ResultadoAnalisis desdeDisco(String codigo, ModoAnalisis modo, Ast.Programa programa) {
+        ResultadoAnalisis resultado = new ResultadoAnalisis(codigo, modo, programa, null, null);
+        resultado.arbolLeido = true;
+        return resultado;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public ModoAnalisis getModo() {
+        return modo;
+    }
+
+    public Ast.Programa getPrograma() {
+        Ast.Programa p = programa;
+        if (p == null) {
+            ArbolColumnar a = arbol;
+            if (a != null) {
+                // Compactado: nodos leídos armados desde las columnas, sin guardarlos
+                return a.aAst();
+            }
+            p = new SintaxisAnalizer(codigo, modo).parsear(codigo);
+            programa = p;
+        }
+        return p;
+    }
+
+    // Errores de sintaxis con línea y columna (parte del árbol)
+    public List<Diagnostico> getDiagnosticos() {
+        ArbolColumnar a = arbol;
+        return a != null ? a.getDiagnosticos() : getPrograma().getDiagnosticos();
+    }
+
+    // El árbol en columnas (ver ArbolColumnar); se arma la primera vez que se pide
+    public ArbolColumnar getArbol() {
+        ArbolColumnar a = arbol;
+        if (a == null) {
+            a = ArbolColumnar.desde(getPrograma(), codigo);
+            arbol = a;
+        }
+        return a;
+    }
+
+    // Deja solo el árbol en columnas: suelta los nodos y los tokens, que se rearman si alguien los
+    // pide. La tabla de símbolos, si ya se armó, se conserva
+    public void compactar() {
+        getArbol();
+        arbolLeido = true;
+        programa = null;
+        tokens = null;
+    }
+
+    // Clases, métodos, atributos, variables y asignaciones en sus ámbitos, con línea y columna
+    public TablaSimbolos getSimbolos() {
+        TablaSimbolos t = simbolos;
+        if (t == null) {
+            Ast.Programa arbol = arbolLeido ? new SintaxisAnalizer(codigo, modo).parsear(codigo) : getPrograma();
+            t = TablaSimbolos.construir(arbol, codigo);
+            simbolos = t;
+        }
+        return t;
+    }
+
+    public ReporteCaracteres getCaracteres() {
+        ReporteCaracteres c = caracteres;
+        if (c == null) {
+            c = ClasificadorCaracteres.clasificarTodo(codigo);
+            caracteres = c;
+        }
+        return c;
+    }
+
+    public TokenStream getTokens() {
+        TokenStream t = tokens;
+        if (t == null) {
+            t = Lexer.tokenizar(codigo);
+            tokens = t;
+        }
+        return t;
+    }
+
+    // Memoria aproximada de lo que retiene el resultado: el código, el árbol (nodos o columnas),
+    // los tokens, el reporte de caracteres, la tabla de símbolos y los textos ya generados. Crece
+    // a medida que se piden vistas; CacheAnalisis lo cuenta contra su límite de bytes
+    public long bytesEstimados() {
+        long bytes = bytesCodigo + bytesTextos;
+        if (programa != null) {
+            bytes += codigo.length() * BYTES_POR_CARACTER_ARBOL;
+        }
+        ArbolColumnar a = arbol;
+        if (a != null) {
+            bytes += a.bytesEstimados();
+        }
+        TokenStream t = tokens;
+        if (t != null) {
+            bytes += t.bytesEstimados();
+        }
+        ReporteCaracteres c = caracteres;
+        if (c != null) {
+            bytes += c.bytesEstimados();
+        }
+        TablaSimbolos s = simbolos;
+        if (s != null) {
+            bytes += s.getSimbolos().size() * BYTES_POR_SIMBOLO;
+        }
+        return bytes;
+    }
+
+    // Un String ocupa 1 byte por carácter si todos caben en Latin-1, y 2 si no
+    private static long bytesDeTexto(String texto) {
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            if (texto.charAt(i) > 0xFF) {
+                return 40 + 2L * n;
+            }
+        }
+        return 40 + texto.length();
+    }
+
+    // Si dos hilos generan el mismo texto a la vez se cuenta dos veces: la estimación solo crece de más
+    private synchronized void agregarBytesTexto(String texto) {
+        bytesTextos += bytesDeTexto(texto);
+    }
+
+    // Mismo texto que SintaxisAnalizer.analizar(). No se guarda: en un archivo grande ocuparía
+    // más que el propio árbol, y renderizar desde las columnas es un solo recorrido
+    public String getTextoArbol() {
+        if (codigo.isEmpty()) {
+            return SintaxisAnalizer.MENSAJE_VACIO;
+        }
+        ArbolColumnar a = arbol;
+        return a != null ? a.renderizar() : Ast.renderizar(getPrograma());
+    }
+
+    // Mismo texto que mostrarCaracterPorCaracter()
+    public String getTextoCaracteres() {
+        String texto = textoCaracteres;
+        if (texto == null) {
+            texto = ClasificadorCaracteres.reporte(getCaracteres());
+            agregarBytesTexto(texto);
+            textoCaracteres = texto;
+        }
+        return texto;
+    }
+
+    // Mismo texto que mostrarCaracteresAgrupados()
+    public String getTextoAgrupado() {
+        String texto = textoAgrupado;
+        if (texto == null) {
+            texto = ClasificadorCaracteres.reporteAgrupado(codigo);
+            agregarBytesTexto(texto);
+            textoAgrupado = texto;
+        }
+        return texto;
+    }
+}
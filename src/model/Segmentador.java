@@ -0,0 +1,200 @@
+/**
+ * Divide un flujo de caracteres en construcciones de primer nivel (clases,
+ * métodos, declaraciones, bloques si...finsi / mientras...finmientras / para...finpara / repetir...hasta)
+ * sin necesidad de tener el documento completo en memoria.
+ * Cada segmento se entrega al {@link Receptor} en cuanto se cierra, así que la
+ * memoria usada queda acotada por la construcción de primer nivel más grande.
+ */
+public class Segmentador {
+    // Límite de seguridad: si un segmento crece más que esto (p. ej. llave sin cerrar) se entrega igual
+    public static final int MAXIMO_SEGMENTO_POR_DEFECTO = 64 * 1024 * 1024;
+
+    // 'texto' es una vista sobre el buffer del segmentador, válida solo durante la llamada: quien
+    // necesite el texto después lo copia (dividir en regiones solo usa las posiciones)
+    public interface Receptor {
+        void segmento(CharSequence texto, long desplazamiento);
+    }
+
+    private final Receptor receptor;
+    private final int maximoSegmento;
+
+    private final StringBuilder actual = new StringBuilder();
+    private final StringBuilder linea = new StringBuilder();
+    private long inicioActual;
+    private long inicioLinea;
+    private long posicion;
+
+    // Estado léxico del modo Java (persiste entre líneas)
+    private int nivelLlaves;
+    private int nivelParentesis;
+    private boolean enComentarioBloque;
+    // Bloques abiertos del modo español (si / mientras / para / repetir)
+    private int nivelEspanol;
+    // La última línea cerrada terminaba en '}'
+    private boolean terminaEnLlave;
+    // '}' encontradas sin ninguna llave abierta: el corte anterior pudo quedar mal ubicado
+    private int llavesSobrantes;
+
+    public Segmentador(Receptor receptor) {
+        this(receptor, MAXIMO_SEGMENTO_POR_DEFECTO);
+    }
+
+    public Segmentador(Receptor receptor, int maximoSegmento) {
+        this.receptor = receptor;
+        this.maximoSegmento = maximoSegmento;
+    }
+
+    public void alimentar(CharSequence trozo) {
+        for (int i = 0, n = trozo.length(); i < n; i++) {
+            char c = trozo.charAt(i);
+            posicion++;
+            if (c == '\n') {
+                terminarLinea();
+                inicioLinea = posicion;
+            } else if (c != '\r') {
+                linea.append(c);
+            }
+        }
+    }
+
+    // Caracteres consumidos hasta ahora; dentro de Receptor.segmento es el fin del segmento entregado
+    public long getPosicion() {
+        return posicion;
+    }
+
+    // Dentro de Receptor.segmento: true si el segmento entregado termina en '}' (una clase o un método Java)
+    public boolean terminaEnLlave() {
+        return terminaEnLlave;
+    }
+
+    // Cantidad de '}' sin llave abierta vistas hasta ahora
+    public int getLlavesSobrantes() {
+        return llavesSobrantes;
+    }
+
+    public void alimentar(char[] buffer, int desde, int cantidad) {
+        alimentar(java.nio.CharBuffer.wrap(buffer, desde, cantidad));
+    }
+
+    // Entrega lo que quede pendiente al final del flujo
+    public void terminar() {
+        if (linea.length() > 0) {
+            terminarLinea();
+        }
+        entregar();
+    }
+
+    private void terminarLinea() {
+        if (actual.length() == 0) {
+            inicioActual = inicioLinea;
+        }
+        char ultimo = analizarLinea();
+        if (ultimo != '\0') {
+            terminaEnLlave = ultimo == '}';
+        }
+        actual.append(linea).append('\n');
+        boolean esCierreDePrimerNivel = nivelLlaves == 0 && nivelParentesis == 0 && nivelEspanol == 0 && !enComentarioBloque
+                && (ultimo == '}' || ultimo == ';' || esLineaEspanolaCompleta(ultimo));
+        linea.setLength(0);
+        if (esCierreDePrimerNivel || actual.length() >= maximoSegmento) {
+            entregar();
+        }
+    }
+
+    // Recorre la línea actualizando llaves, paréntesis y bloques en español.
+    // Retorna el último carácter significativo fuera de comentarios y cadenas (o '\0').
+    private char analizarLinea() {
+        char ultimo = '\0';
+        boolean enCadena = false;
+        char comilla = 0;
+        int n = linea.length();
+        for (int i = 0; i < n; i++) {
+            char c = linea.charAt(i);
+            if (enComentarioBloque) {
+                if (c == '*' && i + 1 < n && linea.charAt(i + 1) == '/') {
+                    enComentarioBloque = false;
+                    i++;
+                }
+                continue;
+            }
+            if (enCadena) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == comilla) {
+                    enCadena = false;
+                    ultimo = c;
+                }
+                continue;
+            }
+            if (c == '/' && i + 1 < n) {
+                char sig = linea.charAt(i + 1);
+                if (sig == '/') break;
+                if (sig == '*') {
+                    enComentarioBloque = true;
+                    i++;
+                    continue;
+                }
+            }
+            switch (c) {
+                case '"':
+                case '\'':
+                    enCadena = true;
+                    comilla = c;
+                    break;
+                case '{': nivelLlaves++; break;
+                case '}':
+                    if (nivelLlaves > 0) nivelLlaves--;
+                    else llavesSobrantes++;
+                    break;
+                case '(': nivelParentesis++; break;
+                case ')': if (nivelParentesis > 0) nivelParentesis--; break;
+                default:
+                    break;
+            }
+            if (!Character.isWhitespace(c)) {
+                ultimo = c;
+            }
+        }
+        // Las palabras de bloque del modo español solo cuentan fuera de bloques Java
+        if (nivelLlaves == 0 && ultimo != ';' && ultimo != '{' && ultimo != '}') {
+            int palabra = PalabrasClave.primeraPalabra(linea);
+            if (PalabrasClave.es(palabra, PalabrasClave.APERTURA_ESPANOL)) {
+                nivelEspanol++;
+            } else if (PalabrasClave.es(palabra, PalabrasClave.CIERRE_ESPANOL) && nivelEspanol > 0) {
+                nivelEspanol--;
+            }
+        }
+        return ultimo;
+    }
+
+    // Asignación de primer nivel del modo español ("x = x + 1") o cierre de bloque
+    private boolean esLineaEspanolaCompleta(char ultimo) {
+        if (PalabrasClave.es(PalabrasClave.primeraPalabra(linea), PalabrasClave.CIERRE_ESPANOL)) {
+            return true;
+        }
+        if (!(Character.isLetterOrDigit(ultimo) || ultimo == ')' || ultimo == '"' || ultimo == '\'')) {
+            return false;
+        }
+        int i = 0;
+        int n = linea.length();
+        while (i < n && Character.isWhitespace(linea.charAt(i))) i++;
+        if (i == n || !(Character.isLetter(linea.charAt(i)) || linea.charAt(i) == '_')) return false;
+        while (i < n && (Character.isLetterOrDigit(linea.charAt(i)) || linea.charAt(i) == '_')) i++;
+        while (i < n && Character.isWhitespace(linea.charAt(i))) i++;
+        return i + 1 < n && linea.charAt(i) == '=' && linea.charAt(i + 1) != '=';
+    }
+
+    private void entregar() {
+        if (!esBlanco(actual)) {
+            receptor.segmento(actual, inicioActual);
+        }
+        actual.setLength(0);
+    }
+
+    private static boolean esBlanco(CharSequence texto) {
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            if (!Character.isWhitespace(texto.charAt(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,431 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario compacto del árbol de análisis, para guardarlo y volver a cargarlo sin
+ * analizar de nuevo ni releer el texto de {@link Ast#renderizar}; y exportación a JSON.
+ *
+ * Binario: la cabecera "AST" y la versión, y luego cada programa en preorden. Un nodo es su
+ * etiqueta, sus detalles y la cantidad de hijos, seguido de los hijos. Los textos se internan:
+ * la primera aparición va completa (UTF-8) y las siguientes como un índice en la tabla, que se
+ * comparte entre todos los programas del mismo flujo. Los enteros son varints (7 bits por byte).
+ *
+ * El árbol leído tiene nodos {@link Ast.Leido}: se presenta igual que el original (mismo texto
+ * de {@link Ast#renderizar}, mismas filas en la vista) y conserva los diagnósticos.
+ */
+public final class SerializadorAst {
+    private static final byte[] CABECERA = { 'A', 'S', 'T', 1 };
+    // Marcas antes de cada programa del flujo
+    private static final int FIN = 0;
+    private static final int PROGRAMA = 1;
+    // Referencias a textos: 0 = null, 1 = texto nuevo, 2 + i = texto i de la tabla
+    private static final int NULO = 0;
+    private static final int NUEVO = 1;
+
+    private SerializadorAst() {
+    }
+
+    // ============== Atajos ==============
+
+    public static byte[] aBytes(Ast.Programa programa) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (Escritor escritor = new Escritor(salida)) {
+            escritor.escribir(programa);
+        } catch (IOException e) {
+            // ByteArrayOutputStream no falla
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    public static Ast.Programa desdeBytes(byte[] datos) throws IOException {
+        Ast.Programa programa = new Lector(new ByteArrayInputStream(datos)).leer();
+        if (programa == null) {
+            throw new IOException("El flujo no contiene ningún árbol");
+        }
+        return programa;
+    }
+
+    // ============== Escritura ==============
+
+    /**
+     * Escribe uno o más programas en un flujo. close() agrega la marca de fin y cierra el
+     * flujo de salida; flush() vacía el búfer propio sin cerrarlo.
+     */
+    public static final class Escritor implements Closeable, Flushable {
+        private final OutputStream salida;
+        private final byte[] buffer = new byte[8192];
+        private int usados;
+        private final Map<String, Integer> textos = new HashMap<>();
+
+        public Escritor(OutputStream salida) throws IOException {
+            this.salida = salida;
+            escribirBytes(CABECERA, 0, CABECERA.length);
+        }
+
+        public void escribir(Ast.Programa programa) throws IOException {
+            escribirVarint(PROGRAMA);
+            List<Diagnostico> diagnosticos = programa.getDiagnosticos();
+            escribirVarint(diagnosticos.size());
+            for (Diagnostico d : diagnosticos) {
+                escribirVarint(d.getPosicion());
+                escribirVarint(d.getLinea());
+                escribirVarint(d.getColumna());
+                escribirTexto(d.getMensaje());
+                escribirTexto(d.getEsperado());
+                escribirTexto(d.getEncontrado());
+            }
+            // Los elementos, no hijos(): el grupo de errores se rearma desde los diagnósticos
+            List<Ast.Nodo> elementos = programa.getElementos();
+            escribirVarint(elementos.size());
+            for (Ast.Nodo elemento : elementos) {
+                escribirNodo(elemento);
+            }
+        }
+
+        private void escribirNodo(Ast.Nodo nodo) throws IOException {
+            escribirTexto(nodo.etiqueta());
+            List<String> detalles = nodo.detalles();
+            escribirVarint(detalles.size());
+            for (String detalle : detalles) {
+                escribirTexto(detalle);
+            }
+            List<Ast.Nodo> hijos = nodo.hijos();
+            escribirVarint(hijos.size());
+            for (Ast.Nodo hijo : hijos) {
+                escribirNodo(hijo);
+            }
+        }
+
+        private void escribirTexto(String texto) throws IOException {
+            if (texto == null) {
+                escribirVarint(NULO);
+                return;
+            }
+            Integer indice = textos.get(texto);
+            if (indice != null) {
+                escribirVarint(2 + indice);
+                return;
+            }
+            textos.put(texto, textos.size());
+            byte[] datos = texto.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(NUEVO);
+            escribirVarint(datos.length);
+            escribirBytes(datos, 0, datos.length);
+        }
+
+        private void escribirVarint(int valor) throws IOException {
+            if (usados + 5 > buffer.length) {
+                vaciar();
+            }
+            while ((valor & ~0x7F) != 0) {
+                buffer[usados++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            buffer[usados++] = (byte) valor;
+        }
+
+        private void escribirBytes(byte[] datos, int desde, int largo) throws IOException {
+            if (largo > buffer.length - usados) {
+                vaciar();
+                if (largo > buffer.length) {
+                    salida.write(datos, desde, largo);
+                    return;
+                }
+            }
+            System.arraycopy(datos, desde, buffer, usados, largo);
+            usados += largo;
+        }
+
+        private void vaciar() throws IOException {
+            salida.write(buffer, 0, usados);
+            usados = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            vaciar();
+            salida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                escribirVarint(FIN);
+                flush();
+            } finally {
+                salida.close();
+            }
+        }
+    }
+
+    // ============== Lectura ==============
+
+    /**
+     * Lee los programas de un flujo escrito por {@link Escritor}, uno por llamada a leer().
+     * No cierra el flujo de entrada.
+     */
+    public static final class Lector {
+        private final InputStream entrada;
+        private final byte[] buffer = new byte[8192];
+        private int posicion;
+        private int disponibles;
+        private final List<String> textos = new ArrayList<>();
+        private boolean terminado;
+
+        public Lector(InputStream entrada) throws IOException {
+            this.entrada = entrada;
+            byte[] cabecera = new byte[CABECERA.length];
+            for (int i = 0; i < cabecera.length; i++) {
+                cabecera[i] = (byte) leerByte();
+            }
+            if (!Arrays.equals(cabecera, CABECERA)) {
+                throw new IOException("No es un árbol serializado o es de otra versión");
+            }
+        }
+
+        // El siguiente programa, o null al final del flujo
+        public Ast.Programa leer() throws IOException {
+            if (terminado) {
+                return null;
+            }
+            int marca = leerVarint();
+            if (marca == FIN) {
+                terminado = true;
+                return null;
+            }
+            if (marca != PROGRAMA) {
+                throw new IOException("Marca inválida: " + marca);
+            }
+            Ast.Programa programa = new Ast.Programa();
+            int cantidad = leerCantidad();
+            if (cantidad > 0) {
+                List<Diagnostico> diagnosticos = new ArrayList<>(capacidad(cantidad));
+                for (int i = 0; i < cantidad; i++) {
+                    int posicion = leerVarint();
+                    int linea = leerVarint();
+                    int columna = leerVarint();
+                    diagnosticos.add(new Diagnostico(posicion, leerTexto(), leerTexto(), leerTexto(), linea, columna));
+                }
+                programa.setDiagnosticos(diagnosticos);
+            }
+            cantidad = leerCantidad();
+            for (int i = 0; i < cantidad; i++) {
+                programa.getElementos().add(leerNodo());
+            }
+            return programa;
+        }
+
+        private Ast.Leido leerNodo() throws IOException {
+            String etiqueta = leerTexto();
+            int cantidad = leerCantidad();
+            List<String> detalles = Collections.emptyList();
+            if (cantidad > 0) {
+                detalles = new ArrayList<>(capacidad(cantidad));
+                for (int i = 0; i < cantidad; i++) {
+                    detalles.add(leerTexto());
+                }
+            }
+            cantidad = leerCantidad();
+            List<Ast.Nodo> hijos = Collections.emptyList();
+            if (cantidad > 0) {
+                hijos = new ArrayList<>(capacidad(cantidad));
+                for (int i = 0; i < cantidad; i++) {
+                    hijos.add(leerNodo());
+                }
+            }
+            return new Ast.Leido(etiqueta, detalles, hijos);
+        }
+
+        private String leerTexto() throws IOException {
+            int referencia = leerVarint();
+            if (referencia == NULO) {
+                return null;
+            }
+            if (referencia != NUEVO) {
+                int indice = referencia - 2;
+                if (indice >= textos.size()) {
+                    throw new IOException("Referencia a un texto inexistente: " + indice);
+                }
+                return textos.get(indice);
+            }
+            int largo = leerCantidad();
+            // El largo viene de los datos: el arreglo crece a medida que llegan los bytes, así un
+            // largo dañado termina en EOFException y no en un arreglo de hasta 2 GB
+            byte[] datos = new byte[Math.min(largo, buffer.length)];
+            int leidos = 0;
+            while (leidos < largo) {
+                if (posicion == disponibles && !llenar()) {
+                    throw new EOFException("Árbol serializado incompleto");
+                }
+                if (leidos == datos.length) {
+                    datos = Arrays.copyOf(datos, (int) Math.min(largo, 2L * datos.length));
+                }
+                int n = Math.min(datos.length - leidos, disponibles - posicion);
+                System.arraycopy(buffer, posicion, datos, leidos, n);
+                posicion += n;
+                leidos += n;
+            }
+            String texto = new String(datos, StandardCharsets.UTF_8);
+            textos.add(texto);
+            return texto;
+        }
+
+        // Capacidad inicial para 'cantidad' elementos leídos de los datos: acotada, la lista crece si hacen falta más
+        private static int capacidad(int cantidad) {
+            return Math.min(cantidad, 1024);
+        }
+
+        // Una cantidad o un largo: no puede ser negativo (protege de datos dañados)
+        private int leerCantidad() throws IOException {
+            int valor = leerVarint();
+            if (valor < 0) {
+                throw new IOException("Cantidad inválida: " + valor);
+            }
+            return valor;
+        }
+
+        private int leerVarint() throws IOException {
+            int valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+                int b = leerByte();
+                valor |= (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new IOException("Varint demasiado largo");
+        }
+
+        private int leerByte() throws IOException {
+            if (posicion == disponibles && !llenar()) {
+                throw new EOFException("Árbol serializado incompleto");
+            }
+            return buffer[posicion++] & 0xFF;
+        }
+
+        private boolean llenar() throws IOException {
+            int n = entrada.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            posicion = 0;
+            disponibles = n;
+            return true;
+        }
+    }
+
+    // ============== JSON ==============
+    // {"etiqueta": ..., "detalles": [...], "hijos": [...]}; el programa agrega "diagnosticos".
+    // Los arreglos vacíos se omiten.
+
+    public static String aJson(Ast.Programa programa) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            escribirJson(programa, sb);
+        } catch (IOException e) {
+            // StringBuilder no falla
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    public static void escribirJson(Ast.Programa programa, Appendable salida) throws IOException {
+        salida.append("{\"etiqueta\":");
+        cadenaJson(programa.etiqueta(), salida);
+        List<Ast.Nodo> elementos = programa.getElementos();
+        if (!elementos.isEmpty()) {
+            salida.append(",\"hijos\":[");
+            for (int i = 0; i < elementos.size(); i++) {
+                if (i > 0) salida.append(',');
+                nodoJson(elementos.get(i), salida);
+            }
+            salida.append(']');
+        }
+        List<Diagnostico> diagnosticos = programa.getDiagnosticos();
+        if (!diagnosticos.isEmpty()) {
+            salida.append(",\"diagnosticos\":[");
+            for (int i = 0; i < diagnosticos.size(); i++) {
+                Diagnostico d = diagnosticos.get(i);
+                if (i > 0) salida.append(',');
+                salida.append("{\"linea\":").append(Integer.toString(d.getLinea()))
+                        .append(",\"columna\":").append(Integer.toString(d.getColumna()))
+                        .append(",\"posicion\":").append(Integer.toString(d.getPosicion()))
+                        .append(",\"mensaje\":");
+                cadenaJson(d.getMensaje(), salida);
+                salida.append(",\"esperado\":");
+                cadenaJson(d.getEsperado(), salida);
+                salida.append(",\"encontrado\":");
+                cadenaJson(d.getEncontrado(), salida);
+                salida.append('}');
+            }
+            salida.append(']');
+        }
+        salida.append('}');
+    }
+
+    private static void nodoJson(Ast.Nodo nodo, Appendable salida) throws IOException {
+        salida.append("{\"etiqueta\":");
+        cadenaJson(nodo.etiqueta(), salida);
+        List<String> detalles = nodo.detalles();
+        if (!detalles.isEmpty()) {
+            salida.append(",\"detalles\":[");
+            for (int i = 0; i < detalles.size(); i++) {
+                if (i > 0) salida.append(',');
+                cadenaJson(detalles.get(i), salida);
+            }
+            salida.append(']');
+        }
+        List<Ast.Nodo> hijos = nodo.hijos();
+        if (!hijos.isEmpty()) {
+            salida.append(",\"hijos\":[");
+            for (int i = 0; i < hijos.size(); i++) {
+                if (i > 0) salida.append(',');
+                nodoJson(hijos.get(i), salida);
+            }
+            salida.append(']');
+        }
+        salida.append('}');
+    }
+
+    // Cadena JSON con sus escapes (null se escribe como null)
+    static void cadenaJson(String texto, Appendable salida) throws IOException {
+        if (texto == null) {
+            salida.append("null");
+            return;
+        }
+        salida.append('"');
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            salida.append(texto, inicio, i);
+            switch (c) {
+                case '"': salida.append("\\\""); break;
+                case '\\': salida.append("\\\\"); break;
+                case '\n': salida.append("\\n"); break;
+                case '\r': salida.append("\\r"); break;
+                case '\t': salida.append("\\t"); break;
+                default: salida.append(String.format("\\u%04x", (int) c));
+            }
+            inicio = i + 1;
+        }
+        salida.append(texto, inicio, texto.length()).append('"');
+    }
+}
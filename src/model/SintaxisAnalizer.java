@@ -1,514 +1,696 @@
-import java.util.regex.*;
-import java.util.*;
-
-public class SintaxisAnalizer {
-    // Patrones para cada componente del lenguaje
-    private static final Pattern CLASE_PATTERN = Pattern.compile("(public\\s+)?class\\s+(\\w+)\\s*\\{");
-    private static final Pattern METODO_PATTERN = Pattern.compile("(public|private|protected|void)?\\s*(static)?\\s*([\\w<>\\[\\]]+)\\s+(\\w+)\\s*\\(([^)]*)\\)\\s*\\{");
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("(?<!\\w)(public|private|protected)?\\s*([\\w\\[\\]]+(?:<[^>]+>)?)\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*(=\\s*[^;]+)?;");
-    private static final Pattern IF_PATTERN = Pattern.compile("if\\s*\\(([^)]+)\\)\\s*\\{");
-    private static final Pattern ELSE_PATTERN = Pattern.compile("\\}\\s*else\\s*\\{");
-    private static final Pattern FOR_PATTERN = Pattern.compile("for\\s*\\(([^)]+)\\)\\s*\\{");
-    private static final Pattern WHILE_PATTERN = Pattern.compile("while\\s*\\(([^)]+)\\)\\s*\\{");
-
-    // Palabras clave del modo español (subset de GLC propuesta)
-    private static final String KW_SI = "si";
-    private static final String KW_ENTONCES = "entonces";
-    private static final String KW_SINO = "sino";
-    private static final String KW_FINSI = "finsi";
-    private static final String KW_MIENTRAS = "mientras";
-    private static final String KW_HACER = "hacer";
-    private static final String KW_FINMIENTRAS = "finmientras";
-
-    private String codigoFuente;
-    private StringBuilder arbol;
-    private int indentacion;
-
-    public SintaxisAnalizer(String codigoFuente) {
-        this.codigoFuente = codigoFuente;
-        this.arbol = new StringBuilder();
-        this.indentacion = 0;
-    }
-
-    private void agregarNodo(String texto) {
-        arbol.append("  ".repeat(indentacion)).append(texto).append("\n");
-    }
-    
-    private void agregarDebug(String mensaje) {
-        // Solo para debug - se puede comentar en producción
-        // System.out.println("DEBUG: " + mensaje);
-    }
-
-    public String analizar(String codigoFuente) {
-        if (codigoFuente == null || codigoFuente.isEmpty()) {
-            return "Error: El código fuente está vacío.";
-        }
-        
-        // Actualizar el código fuente de la instancia
-        this.codigoFuente = codigoFuente;
-        
-        // Reinicializar el árbol y la indentación
-        arbol = new StringBuilder("Árbol de derivación:\n");
-        indentacion = 0;
-        
-        agregarNodo("Programa");
-        indentacion++;
-        
-        // Modo: detectar español vs Java (heurística simple)
-        if (esCodigoEspanol(codigoFuente)) {
-            analizarProgramaEspanol(codigoFuente);
-        } else {
-            // Analizar el tipo de programa Java
-            if (codigoFuente.contains("class")) {
-                analizarClase(codigoFuente);
-            } else if (codigoFuente.contains("(")) {
-                analizarMetodo(codigoFuente);
-            } else {
-                analizarDeclaraciones(codigoFuente);
-            }
-        }
-        
-        return arbol.toString();
-    }
-
-    private boolean esCodigoEspanol(String codigo) {
-        String lower = codigo.toLowerCase(Locale.ROOT);
-        int hits = 0;
-        if (lower.contains(KW_SI)) hits++;
-        if (lower.contains(KW_ENTONCES)) hits++;
-        if (lower.contains(KW_SINO)) hits++;
-        if (lower.contains(KW_FINSI)) hits++;
-        if (lower.contains(KW_MIENTRAS)) hits++;
-        if (lower.contains(KW_HACER)) hits++;
-        if (lower.contains(KW_FINMIENTRAS)) hits++;
-        // Considerar español si hay al menos dos palabras clave del subset
-        return hits >= 2 && !lower.contains("class") && !lower.contains("public") && !lower.contains("if (") && !lower.contains("while (");
-    }
-
-    // ============== Analizador simple para el subset en español ==============
-    private void analizarProgramaEspanol(String codigo) {
-        // Tokenizar por líneas para simular bloques con palabras de inicio/fin
-        List<String> lineas = dividirEnLineasNoVacias(codigo);
-        int index = 0;
-        while (index < lineas.size()) {
-            String linea = lineas.get(index).trim();
-            if (linea.isEmpty()) { index++; continue; }
-            if (empiezaConPalabra(linea, KW_MIENTRAS)) {
-                index = analizarMientras(lineas, index);
-                continue;
-            }
-            if (empiezaConPalabra(linea, KW_SI)) {
-                index = analizarSi(lineas, index);
-                continue;
-            }
-            // Asignación simple: identificador = expresión
-            if (linea.matches("[a-zA-Z_][a-zA-Z0-9_]*\\s*=.+")) {
-                agregarNodo("Asignación: " + linea);
-                index++;
-                continue;
-            }
-            // Si no reconocible, reportar como sentencia genérica
-            agregarNodo("Sentencia: " + linea);
-            index++;
-        }
-        indentacion--;
-    }
-
-    private int analizarMientras(List<String> lineas, int inicio) {
-        String cabecera = lineas.get(inicio).trim();
-        // Formato esperado: mientras CONDICION hacer
-        agregarNodo("Mientras");
-        indentacion++;
-        String condicion = extraerEntrePalabras(cabecera, KW_MIENTRAS, KW_HACER);
-        agregarNodo("Condición: " + (condicion.isEmpty() ? "<vacía>" : condicion.trim()));
-        // Buscar bloque hasta finmientras
-        int i = inicio + 1;
-        agregarNodo("Bloque");
-        indentacion++;
-        while (i < lineas.size()) {
-            String linea = lineas.get(i).trim();
-            if (empiezaConPalabra(linea, KW_FINMIENTRAS)) {
-                break;
-            }
-            // Reingresar para anidar estructuras
-            if (empiezaConPalabra(linea, KW_SI)) {
-                i = analizarSi(lineas, i);
-                continue;
-            }
-            if (empiezaConPalabra(linea, KW_MIENTRAS)) {
-                i = analizarMientras(lineas, i);
-                continue;
-            }
-            if (linea.matches("[a-zA-Z_][a-zA-Z0-9_]*\\s*=.+")) {
-                agregarNodo("Asignación: " + linea);
-            } else {
-                agregarNodo("Sentencia: " + linea);
-            }
-            i++;
-        }
-        indentacion--; // fin Bloque
-        indentacion--; // fin Mientras
-        return Math.min(i + 1, lineas.size());
-    }
-
-    private int analizarSi(List<String> lineas, int inicio) {
-        String cabecera = lineas.get(inicio).trim();
-        // Formato esperado: si CONDICION entonces
-        agregarNodo("Si");
-        indentacion++;
-        String condicion = extraerEntrePalabras(cabecera, KW_SI, KW_ENTONCES);
-        agregarNodo("Condición: " + (condicion.isEmpty() ? "<vacía>" : condicion.trim()));
-        // then-bloque
-        agregarNodo("Entonces");
-        indentacion++;
-        int i = inicio + 1;
-        while (i < lineas.size()) {
-            String linea = lineas.get(i).trim();
-            if (empiezaConPalabra(linea, KW_SINO) || empiezaConPalabra(linea, KW_FINSI)) {
-                break;
-            }
-            if (empiezaConPalabra(linea, KW_SI)) {
-                i = analizarSi(lineas, i);
-                continue;
-            }
-            if (empiezaConPalabra(linea, KW_MIENTRAS)) {
-                i = analizarMientras(lineas, i);
-                continue;
-            }
-            if (linea.matches("[a-zA-Z_][a-zA-Z0-9_]*\\s*=.+")) {
-                agregarNodo("Asignación: " + linea);
-            } else {
-                agregarNodo("Sentencia: " + linea);
-            }
-            i++;
-        }
-        indentacion--; // fin entonces
-
-        // else-bloque opcional
-        if (i < lineas.size() && empiezaConPalabra(lineas.get(i).trim(), KW_SINO)) {
-            agregarNodo("Sino");
-            indentacion++;
-            i++;
-            while (i < lineas.size()) {
-                String linea = lineas.get(i).trim();
-                if (empiezaConPalabra(linea, KW_FINSI)) {
-                    break;
-                }
-                if (empiezaConPalabra(linea, KW_SI)) {
-                    i = analizarSi(lineas, i);
-                    continue;
-                }
-                if (empiezaConPalabra(linea, KW_MIENTRAS)) {
-                    i = analizarMientras(lineas, i);
-                    continue;
-                }
-                if (linea.matches("[a-zA-Z_][a-zA-Z0-9_]*\\s*=.+")) {
-                    agregarNodo("Asignación: " + linea);
-                } else {
-                    agregarNodo("Sentencia: " + linea);
-                }
-                i++;
-            }
-            indentacion--; // fin sino
-        }
-        indentacion--; // fin si
-        // Consumir finsi si presente
-        if (i < lineas.size() && empiezaConPalabra(lineas.get(i).trim(), KW_FINSI)) {
-            i++;
-        }
-        return i;
-    }
-
-    private List<String> dividirEnLineasNoVacias(String codigo) {
-        String[] raw = codigo.replace("\r", "").split("\n");
-        List<String> out = new ArrayList<>();
-        for (String s : raw) {
-            out.add(s);
-        }
-        return out;
-    }
-
-    private boolean empiezaConPalabra(String linea, String palabra) {
-        String l = linea.toLowerCase(Locale.ROOT);
-        return l.startsWith(palabra + " ") || l.equals(palabra);
-    }
-
-    private String extraerEntrePalabras(String linea, String ini, String fin) {
-        String l = linea.toLowerCase(Locale.ROOT);
-        int i = l.indexOf(ini);
-        int j = l.lastIndexOf(fin);
-        if (i == -1 || j == -1 || j <= i) return "";
-        return linea.substring(i + ini.length(), j);
-    }
-
-    private void analizarClase(String codigo) {
-        Matcher claseMatcher = CLASE_PATTERN.matcher(codigo);
-        if (claseMatcher.find()) {
-            agregarNodo("Clase");
-            indentacion++;
-            agregarNodo("Nombre: " + claseMatcher.group(2));
-            
-            // Analizar el cuerpo de la clase
-            String cuerpoClase = extraerBloque(codigo, claseMatcher.end());
-            agregarDebug("Cuerpo de clase extraído: " + cuerpoClase.substring(0, Math.min(50, cuerpoClase.length())));
-            analizarContenidoClase(cuerpoClase);
-            indentacion--;
-        } else {
-            agregarNodo("Error: No se encontró una clase válida");
-        }
-    }
-
-    private void analizarContenidoClase(String cuerpoClase) {
-        agregarDebug("Analizando contenido de clase, longitud: " + cuerpoClase.length());
-        
-        // Analizar atributos
-        Matcher variableMatcher = VARIABLE_PATTERN.matcher(cuerpoClase);
-        boolean tieneAtributos = false;
-        while (variableMatcher.find()) {
-            if (!estaDentroDeMetodo(cuerpoClase, variableMatcher.start())) {
-                if (!tieneAtributos) {
-                    agregarNodo("Atributos");
-                    indentacion++;
-                    tieneAtributos = true;
-                }
-                analizarVariable(variableMatcher);
-            }
-        }
-        if (tieneAtributos) indentacion--;
-
-        // Analizar métodos
-        Matcher metodoMatcher = METODO_PATTERN.matcher(cuerpoClase);
-        boolean tieneMetodos = false;
-        int contadorMetodos = 0;
-        
-        while (metodoMatcher.find()) {
-            contadorMetodos++;
-            agregarDebug("Método encontrado #" + contadorMetodos + ": " + metodoMatcher.group(4));
-            
-            if (!tieneMetodos) {
-                agregarNodo("Métodos");
-                indentacion++;
-                tieneMetodos = true;
-            }
-            // Analizar el método encontrado directamente
-            agregarNodo("Método");
-            indentacion++;
-            agregarNodo("Tipo: " + metodoMatcher.group(3));
-            agregarNodo("Nombre: " + metodoMatcher.group(4));
-            agregarNodo("Parámetros: " + metodoMatcher.group(5));
-            
-            // Analizar cuerpo del método
-            String cuerpoMetodo = extraerBloque(cuerpoClase, metodoMatcher.end());
-            agregarDebug("Cuerpo del método extraído, longitud: " + cuerpoMetodo.length());
-            analizarContenidoMetodo(cuerpoMetodo);
-            indentacion--;
-        }
-        
-        agregarDebug("Total de métodos encontrados: " + contadorMetodos);
-        if (tieneMetodos) indentacion--;
-        
-        // Si no se encontraron métodos ni atributos, mostrar mensaje
-        if (!tieneAtributos && !tieneMetodos) {
-            agregarNodo("Clase vacía o sin elementos reconocibles");
-        }
-    }
-
-    private void analizarMetodo(String codigo) {
-        Matcher metodoMatcher = METODO_PATTERN.matcher(codigo);
-        if (metodoMatcher.find()) {
-            agregarNodo("Método");
-            indentacion++;
-            agregarNodo("Tipo: " + metodoMatcher.group(3));
-            agregarNodo("Nombre: " + metodoMatcher.group(4));
-            agregarNodo("Parámetros: " + metodoMatcher.group(5));
-            
-            // Analizar cuerpo del método
-            String cuerpoMetodo = extraerBloque(codigo, metodoMatcher.end());
-            analizarContenidoMetodo(cuerpoMetodo);
-            indentacion--;
-        }
-    }
-
-    private void analizarContenidoMetodo(String cuerpoMetodo) {
-        // Analizar variables locales
-        analizarDeclaraciones(cuerpoMetodo);
-        
-        // Analizar estructuras de control
-        analizarEstructurasControl(cuerpoMetodo);
-    }
-
-    private void analizarDeclaraciones(String codigo) {
-        Matcher variableMatcher = VARIABLE_PATTERN.matcher(codigo);
-        boolean tieneVariables = false;
-        while (variableMatcher.find()) {
-            if (!tieneVariables) {
-                agregarNodo("Variables");
-                indentacion++;
-                tieneVariables = true;
-            }
-            analizarVariable(variableMatcher);
-        }
-        if (tieneVariables) indentacion--;
-    }
-
-    private void analizarVariable(Matcher matcher) {
-        agregarNodo("Variable");
-        indentacion++;
-        agregarNodo("Tipo: " + matcher.group(2));
-        agregarNodo("Nombre: " + matcher.group(3));
-        String valor = matcher.group(4);
-        agregarNodo("Valor: " + (valor != null ? valor.replaceFirst("=\\s*", "") : "Sin valor"));
-        indentacion--;
-    }
-
-    private void analizarEstructurasControl(String codigo) {
-        analizarIf(codigo);
-        analizarFor(codigo);
-        analizarWhile(codigo);
-    }
-
-    private void analizarIf(String codigo) {
-        Matcher ifMatcher = IF_PATTERN.matcher(codigo);
-        while (ifMatcher.find()) {
-            agregarNodo("If");
-            indentacion++;
-            agregarNodo("Condición: " + ifMatcher.group(1));
-            String bloqueIf = extraerBloque(codigo, ifMatcher.end());
-            analizarContenidoMetodo(bloqueIf);
-            
-            // Buscar else
-            int finIf = ifMatcher.end() + bloqueIf.length();
-            Matcher elseMatcher = ELSE_PATTERN.matcher(codigo.substring(finIf));
-            if (elseMatcher.find()) {
-                agregarNodo("Else");
-                indentacion++;
-                String bloqueElse = extraerBloque(codigo, finIf + elseMatcher.end());
-                analizarContenidoMetodo(bloqueElse);
-                indentacion--;
-            }
-            indentacion--;
-        }
-    }
-
-    private void analizarFor(String codigo) {
-        Matcher forMatcher = FOR_PATTERN.matcher(codigo);
-        while (forMatcher.find()) {
-            agregarNodo("For");
-            indentacion++;
-            agregarNodo("Condición: " + forMatcher.group(1));
-            String bloqueFor = extraerBloque(codigo, forMatcher.end());
-            analizarContenidoMetodo(bloqueFor);
-            indentacion--;
-        }
-    }
-
-    private void analizarWhile(String codigo) {
-        Matcher whileMatcher = WHILE_PATTERN.matcher(codigo);
-        while (whileMatcher.find()) {
-            agregarNodo("While");
-            indentacion++;
-            agregarNodo("Condición: " + whileMatcher.group(1));
-            String bloqueWhile = extraerBloque(codigo, whileMatcher.end());
-            analizarContenidoMetodo(bloqueWhile);
-            indentacion--;
-        }
-    }
-
-    private String extraerBloque(String codigo, int inicio) {
-        int nivel = 0;
-        int fin = codigo.length(); // Por defecto, hasta el final
-        boolean encontroInicio = false;
-        
-        for (int i = inicio; i < codigo.length(); i++) {
-            char c = codigo.charAt(i);
-            if (c == '{') {
-                nivel++;
-                encontroInicio = true;
-            }
-            if (c == '}') {
-                nivel--;
-                if (nivel == 0 && encontroInicio) {
-                    fin = i;
-                    break;
-                }
-            }
-        }
-        
-        // Si no se encontró el cierre, usar hasta el final del código
-        if (fin == inicio) {
-            fin = codigo.length();
-        }
-        
-        return codigo.substring(inicio, fin);
-    }
-
-    private boolean estaDentroDeMetodo(String codigo, int pos) {
-        int nivel = 0;
-        for (int i = 0; i < pos; i++) {
-            char c = codigo.charAt(i);
-            if (c == '{') nivel++;
-            if (c == '}') nivel--;
-        }
-        return nivel > 0;
-    }
-
-    public String mostrarCaracterPorCaracter() {
-        StringBuilder resultado = new StringBuilder();
-        resultado.append("Análisis carácter por carácter:\n");
-        resultado.append("================================\n");
-        
-        for (int i = 0; i < codigoFuente.length(); i++) {
-            char c = codigoFuente.charAt(i);
-            
-            // Omitir espacios en blanco
-            if (Character.isWhitespace(c)) {
-                continue;
-            }
-            
-            String tipo = obtenerTipoCaracter(c);
-            resultado.append(String.format("Posición %3d: '%c' (%s)\n", i, c, tipo));
-        }
-        
-        return resultado.toString();
-    }
-    
-    private String obtenerTipoCaracter(char c) {
-        if (Character.isLetter(c)) {
-            return "Letra";
-        } else if (Character.isDigit(c)) {
-            return "Dígito";
-        } else if (Character.isWhitespace(c)) {
-            if (c == ' ') return "Espacio";
-            if (c == '\t') return "Tabulación";
-            if (c == '\n') return "Salto de línea";
-            if (c == '\r') return "Retorno de carro";
-            return "Espacio en blanco";
-        } else if (c == '{') {
-            return "Llave de apertura";
-        } else if (c == '}') {
-            return "Llave de cierre";
-        } else if (c == '(') {
-            return "Paréntesis de apertura";
-        } else if (c == ')') {
-            return "Paréntesis de cierre";
-        } else if (c == ';') {
-            return "Punto y coma";
-        } else if (c == '=') {
-            return "Operador de asignación";
-        } else if (c == '+' || c == '-' || c == '*' || c == '/') {
-            return "Operador aritmético";
-        } else if (c == '<' || c == '>' || c == '!' || c == '=') {
-            return "Operador de comparación";
-        } else if (c == '"') {
-            return "Comilla doble";
-        } else if (c == '\'') {
-            return "Comilla simple";
-        } else if (c == '.') {
-            return "Punto";
-        } else if (c == ',') {
-            return "Coma";
-        } else {
-            return "Símbolo especial";
-        }
-    }
-}
\ No newline at end of file
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public class SintaxisAnalizer {
+    // Posiciones dentro del resultado de reconocerMetodo / reconocerVariable (índices de token)
+    private static final int MET_TIPO = 0, MET_FIN_TIPO = 1, MET_NOMBRE = 2, MET_PAREN = 3, MET_CIERRE_PAREN = 4, MET_LLAVE = 5;
+    private static final int VAR_TIPO = 0, VAR_FIN_TIPO = 1, VAR_NOMBRE = 2, VAR_VALOR = 3, VAR_FIN = 4;
+
+    static final String MENSAJE_VACIO = "Error: El código fuente está vacío.";
+    // Documentos mixtos: a partir de esta cantidad de caracteres las regiones se analizan en paralelo
+    static final int UMBRAL_PARALELO = 64 * 1024;
+
+    private String codigoFuente;
+    private TokenStream tokens;
+    private final ModoAnalisis modo;
+    // Errores encontrados en el último análisis (todos, no solo el primero)
+    private List<Diagnostico> diagnosticos = new ArrayList<>();
+
+    public SintaxisAnalizer(String codigoFuente) {
+        this(codigoFuente, ModoAnalisis.AUTO);
+    }
+
+    public SintaxisAnalizer(String codigoFuente, ModoAnalisis modo) {
+        this.codigoFuente = codigoFuente;
+        this.modo = modo;
+    }
+
+    // Un análisis largo se cancela interrumpiendo su hilo; se revisa por bloque, declaración y línea
+    static void verificarCancelacion() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Análisis cancelado");
+        }
+    }
+
+    // Analiza el código y retorna el árbol de derivación como texto
+    public String analizar(String codigoFuente) {
+        if (codigoFuente == null || codigoFuente.isEmpty()) {
+            return MENSAJE_VACIO;
+        }
+        return Ast.renderizar(parsear(codigoFuente));
+    }
+
+    // Una sola pasada para todas las vistas: tokens, árbol y clases de caracteres juntos
+    public ResultadoAnalisis analizarCompleto() {
+        if (codigoFuente == null) {
+            codigoFuente = "";
+        }
+        Ast.Programa programa = parsear(codigoFuente);
+        return new ResultadoAnalisis(codigoFuente, modo, programa, tokens, clasificarCaracteres());
+    }
+
+    // Construye el AST en una sola pasada, sin generar texto
+    public Ast.Programa parsear(String codigoFuente) {
+        EventoAnalisis evento = Metricas.iniciarAnalisis();
+        Ast.Programa programa = construirPrograma(codigoFuente);
+        Metricas.terminarAnalisis(evento, codigoFuente, modo, programa);
+        return programa;
+    }
+
+    private Ast.Programa construirPrograma(String codigoFuente) {
+        // Actualizar el código fuente de la instancia
+        this.codigoFuente = codigoFuente;
+        this.tokens = null;
+        this.diagnosticos = new ArrayList<>();
+        
+        Ast.Programa programa = new Ast.Programa();
+        if (codigoFuente == null || codigoFuente.isEmpty()) {
+            return programa;
+        }
+        
+        // Un modo forzado se aplica al documento entero; en AUTO cada región detecta el suyo
+        int n = codigoFuente.length();
+        if (modo == ModoAnalisis.ESPANOL) {
+            analizarProgramaEspanol(codigoFuente, 0, n, programa.getElementos());
+        } else if (modo == ModoAnalisis.JAVA) {
+            analizarJava(codigoFuente, 0, n, programa.getElementos());
+        } else {
+            analizarRegiones(codigoFuente, programa.getElementos());
+        }
+        programa.setDiagnosticos(Diagnostico.ubicar(codigoFuente, diagnosticos));
+        
+        return programa;
+    }
+
+    // ============== Documentos mixtos: regiones de primer nivel ==============
+
+    /**
+     * Región de primer nivel: una clase o un método Java (termina en '}'), o una serie de
+     * segmentos sin llaves (declaraciones o pseudocódigo) con su propia detección de lenguaje.
+     * Las regiones cubren el documento sin huecos: [inicio, fin) va hasta el inicio de la siguiente.
+     * AnalisisIncremental usa las mismas regiones y vuelve a analizar solo las que cambiaron.
+     */
+    static final class Region {
+        final int inicio;
+        final int fin;
+        final boolean espanol;
+        final List<Ast.Nodo> nodos = new ArrayList<>();
+        final List<Diagnostico> diagnosticos = new ArrayList<>();
+
+        Region(int inicio, int fin, boolean espanol) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.espanol = espanol;
+        }
+    }
+
+    private void analizarRegiones(String codigo, List<Ast.Nodo> destino) {
+        long inicio = Metricas.inicio();
+        List<Region> regiones = dividirEnRegiones(codigo);
+        Metricas.registrar(Metricas.Fase.DETECCION_MODO, inicio);
+        Metricas.sumar(Metricas.Contador.REGIONES, regiones.size());
+        if (regiones.size() == 1) {
+            // Caso común (una clase, un método o un programa en español): sin copias ni tareas,
+            // y los tokens quedan en la instancia para ResultadoAnalisis
+            if (regiones.get(0).espanol) {
+                analizarProgramaEspanol(codigo, 0, codigo.length(), destino);
+            } else {
+                analizarJava(codigo, 0, codigo.length(), destino);
+            }
+            return;
+        }
+        if (codigo.length() < UMBRAL_PARALELO) {
+            for (Region region : regiones) {
+                verificarCancelacion();
+                analizarRegion(codigo, region);
+            }
+        } else {
+            analizarEnParalelo(codigo, regiones);
+        }
+        // Unir en el orden del código fuente
+        for (Region region : regiones) {
+            destino.addAll(region.nodos);
+            diagnosticos.addAll(region.diagnosticos);
+        }
+    }
+
+    // Corta el documento con Segmentador: cada segmento que termina en '}' es una región Java propia,
+    // y los segmentos consecutivos sin llaves se juntan en una región cuyo lenguaje se detecta aparte.
+    // Un segmento con una '}' sobrante se junta con las regiones Java inmediatamente anteriores: la
+    // llave que sobra pudo cerrar antes de tiempo a cualquiera de ellas, y la recuperación del
+    // TokenStream (por sangría) necesita verlas juntas.
+    static List<Region> dividirEnRegiones(String codigo) {
+        // {inicio, fin, 1 si termina en llave}
+        List<int[]> tramos = new ArrayList<>();
+        Segmentador[] segmentador = new Segmentador[1];
+        int[] sobrantes = { 0 };
+        segmentador[0] = new Segmentador((texto, desplazamiento) -> {
+            int inicio = (int) desplazamiento;
+            int fin = (int) segmentador[0].getPosicion();
+            boolean llave = segmentador[0].terminaEnLlave();
+            boolean conSobrante = segmentador[0].getLlavesSobrantes() != sobrantes[0];
+            sobrantes[0] = segmentador[0].getLlavesSobrantes();
+            int java = tramos.size();
+            while (conSobrante && java > 0 && tramos.get(java - 1)[2] == 1) java--;
+            int[] ultimo = tramos.isEmpty() ? null : tramos.get(tramos.size() - 1);
+            if (java < tramos.size()) {
+                int[] primero = tramos.get(java);
+                tramos.subList(java + 1, tramos.size()).clear();
+                primero[1] = fin;
+            } else if (!llave && ultimo != null && ultimo[2] == 0) {
+                ultimo[1] = fin;
+            } else {
+                tramos.add(new int[] { inicio, fin, llave ? 1 : 0 });
+            }
+        });
+        segmentador[0].alimentar(codigo);
+        segmentador[0].terminar();
+
+        List<Region> regiones = new ArrayList<>(tramos.size());
+        for (int k = 0; k < tramos.size(); k++) {
+            int[] tramo = tramos.get(k);
+            int inicio = k == 0 ? 0 : tramo[0];
+            int fin = k == tramos.size() - 1 ? codigo.length() : tramos.get(k + 1)[0];
+            // El pseudocódigo no usa llaves: una región que termina en '}' es Java
+            boolean espanol = tramo[2] == 0 && PalabrasClave.esCodigoEspanol(new FragmentoFuente(codigo, inicio, fin));
+            regiones.add(new Region(inicio, fin, espanol));
+        }
+        return regiones;
+    }
+
+    // Cada región usa su propio analizador: el estado (tokens) no se comparte entre hilos.
+    // Las posiciones de los nodos y los diagnósticos son las de 'codigo' (el documento completo)
+    static void analizarRegion(String codigo, Region region) {
+        if (region.espanol) {
+            new AnalizadorEspanol(region.diagnosticos).analizar(codigo, region.inicio, region.fin, region.nodos);
+        } else {
+            SintaxisAnalizer analizador = new SintaxisAnalizer(codigo, ModoAnalisis.JAVA);
+            analizador.analizarJava(codigo, region.inicio, region.fin, region.nodos);
+            region.diagnosticos.addAll(analizador.diagnosticos);
+        }
+    }
+
+    private static void analizarEnParalelo(String codigo, List<Region> regiones) {
+        ForkJoinTask<Void> tarea = ForkJoinPool.commonPool()
+                .submit(new TareaRegiones(codigo, regiones, 0, regiones.size(), Thread.currentThread()));
+        try {
+            tarea.get();
+        } catch (InterruptedException e) {
+            // La vista cancela interrumpiendo este hilo: las tareas pendientes lo ven y no empiezan
+            tarea.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Análisis cancelado");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            if (causa instanceof Error) throw (Error) causa;
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    /**
+     * Analiza las regiones [desde, hasta) en el pool fork-join: mientras el tramo supere
+     * {@link #UMBRAL_PARALELO} caracteres se divide a la mitad; si no, se analiza en este hilo.
+     */
+    private static final class TareaRegiones extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String codigo;
+        private final List<Region> regiones;
+        private final int desde;
+        private final int hasta;
+        // Hilo que pidió el análisis; los hilos del pool no reciben su interrupción
+        private final Thread llamador;
+
+        TareaRegiones(String codigo, List<Region> regiones, int desde, int hasta, Thread llamador) {
+            this.codigo = codigo;
+            this.regiones = regiones;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.llamador = llamador;
+        }
+
+        @Override
+        protected void compute() {
+            int caracteres = regiones.get(hasta - 1).fin - regiones.get(desde).inicio;
+            if (hasta - desde == 1 || caracteres < UMBRAL_PARALELO) {
+                for (int r = desde; r < hasta; r++) {
+                    if (llamador.isInterrupted()) {
+                        throw new CancellationException("Análisis cancelado");
+                    }
+                    analizarRegion(codigo, regiones.get(r));
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaRegiones(codigo, regiones, desde, medio, llamador),
+                    new TareaRegiones(codigo, regiones, medio, hasta, llamador));
+        }
+    }
+
+    // ============== Subconjunto en español: analizador LL(1) por tabla ==============
+    private void analizarProgramaEspanol(String codigo, int desde, int hasta, List<Ast.Nodo> destino) {
+        new AnalizadorEspanol(diagnosticos).analizar(codigo, desde, hasta, destino);
+    }
+
+    // ===================== Modo Java (sobre el flujo de tokens) =====================
+    // Un solo recorrido estructural en orden de fuente: cada clase, método y estructura de control
+    // reconocida se analiza una vez y el recorrido salta al final de su bloque; lo demás se avanza
+    // token por token. Así el costo es lineal y ningún nodo aparece dos veces.
+    private void analizarJava(String codigo, int desde, int hasta, List<Ast.Nodo> destino) {
+        long inicio = Metricas.inicio();
+        tokens = Lexer.tokenizar(codigo, desde, hasta);
+        Metricas.registrar(Metricas.Fase.TOKENIZACION, inicio);
+        Metricas.sumar(Metricas.Contador.TOKENS, tokens.cantidad());
+        inicio = Metricas.inicio();
+        reportarLlavesYParentesis();
+        recorrerPrimerNivel(0, tokens.cantidad(), destino);
+        Metricas.registrar(Metricas.Fase.CLASES_Y_METODOS, inicio);
+    }
+
+    // Primer nivel: clases, métodos sueltos, declaraciones sueltas y estructuras de control sueltas
+    // (una región puede traer varias, por ejemplo las que se juntaron por una llave sobrante)
+    private void recorrerPrimerNivel(int desde, int hasta, List<Ast.Nodo> destino) {
+        // Declaraciones consecutivas: se agrupan en un solo nodo
+        List<Ast.Variable> declaraciones = new ArrayList<>();
+        int i = desde;
+        while (i < hasta) {
+            int siguiente = -1;
+            if (esInicioDeDeclaracion(i, desde)) {
+                int[] variable = reconocerVariable(i, hasta);
+                if (variable != null) {
+                    Metricas.contar(Metricas.Contador.DECLARACIONES);
+                    declaraciones.add(analizarVariable(variable));
+                    i = variable[VAR_FIN] + 1;
+                    continue;
+                }
+                int tamano = destino.size();
+                siguiente = analizarMiembro(i, hasta, destino);
+                if (siguiente != -1 && !declaraciones.isEmpty()) {
+                    destino.add(tamano, new Ast.Declaraciones(declaraciones));
+                    declaraciones = new ArrayList<>();
+                }
+            }
+            if (siguiente == -1) {
+                siguiente = analizarEstructura(i, hasta, destino);
+            } else {
+                verificarCancelacion();
+            }
+            i = siguiente != -1 ? siguiente : i + 1;
+        }
+        if (!declaraciones.isEmpty()) {
+            destino.add(new Ast.Declaraciones(declaraciones));
+        }
+    }
+
+    // Clase o método que empieza en 'i': lo agrega a 'destino' y retorna el índice siguiente a su
+    // bloque; -1 si en 'i' no empieza ninguno
+    private int analizarMiembro(int i, int hasta, List<Ast.Nodo> destino) {
+        int clase = saltarModificadores(i, hasta);
+        if (clase < hasta && tokens.es(clase, "class")) {
+            int llave = reconocerClase(clase, hasta);
+            if (llave == -1) {
+                reportarClaseIncompleta(clase, hasta);
+                destino.add(new Ast.Error("No se encontró una clase válida"));
+                return clase + 1;
+            }
+            destino.add(construirClase(clase, llave, hasta));
+            return extraerBloque(llave, hasta) + 1;
+        }
+        int[] metodo = reconocerMetodo(i, hasta);
+        if (metodo == null) {
+            return -1;
+        }
+        destino.add(construirMetodo(metodo, hasta));
+        return extraerBloque(metodo[MET_LLAVE], hasta) + 1;
+    }
+
+    private Ast.Clase construirClase(int i, int llave, int hasta) {
+        Ast.Clase clase = new Ast.Clase(tokens.fragmento(i + 1));
+        Metricas.contar(Metricas.Contador.CLASES);
+        int cierre = extraerBloque(llave, hasta);
+        recorrerClase(llave + 1, cierre, clase);
+        return clase;
+    }
+
+    // Cuerpo de clase: atributos, métodos y clases internas. Los bloques que no son de un método
+    // (inicializadores, enums, interfaces internas) se saltan enteros.
+    private void recorrerClase(int desde, int hasta, Ast.Clase clase) {
+        verificarCancelacion();
+        int i = desde;
+        while (i < hasta) {
+            if (tokens.tipo(i) == Lexer.LLAVE_ABRE) {
+                i = extraerBloque(i, hasta) + 1;
+                continue;
+            }
+            if (!esInicioDeDeclaracion(i, desde)) {
+                i++;
+                continue;
+            }
+            int inicioClase = saltarModificadores(i, hasta);
+            if (inicioClase < hasta && tokens.es(inicioClase, "class")) {
+                int llave = reconocerClase(inicioClase, hasta);
+                if (llave == -1) {
+                    reportarClaseIncompleta(inicioClase, hasta);
+                    i = inicioClase + 1;
+                    continue;
+                }
+                clase.getClases().add(construirClase(inicioClase, llave, hasta));
+                i = extraerBloque(llave, hasta) + 1;
+                continue;
+            }
+            int[] metodo = reconocerMetodo(i, hasta);
+            if (metodo != null) {
+                clase.getMetodos().add(construirMetodo(metodo, hasta));
+                i = extraerBloque(metodo[MET_LLAVE], hasta) + 1;
+                continue;
+            }
+            int[] variable = reconocerVariable(i, hasta);
+            if (variable != null) {
+                Metricas.contar(Metricas.Contador.DECLARACIONES);
+                clase.getAtributos().add(analizarVariable(variable));
+                i = variable[VAR_FIN] + 1;
+                continue;
+            }
+            i++;
+        }
+    }
+
+    private Ast.Metodo construirMetodo(int[] metodo, int hasta) {
+        // Analizar cuerpo del método
+        Metricas.contar(Metricas.Contador.METODOS);
+        int llave = metodo[MET_LLAVE];
+        Ast.Cuerpo cuerpo = recorrerCuerpo(llave + 1, extraerBloque(llave, hasta));
+        return new Ast.Metodo(
+                tokens.fragmentoEntre(metodo[MET_TIPO], metodo[MET_FIN_TIPO] - 1),
+                tokens.fragmento(metodo[MET_NOMBRE]),
+                textoEntreTokens(metodo[MET_PAREN], metodo[MET_CIERRE_PAREN]),
+                cuerpo);
+    }
+
+    // Cuerpo de un método o de una estructura: solo sus variables locales directas y sus
+    // estructuras de control, en orden. Los demás bloques (try, switch, do, lambdas) no son
+    // nodos propios y su contenido cuenta como parte de este cuerpo.
+    private Ast.Cuerpo recorrerCuerpo(int desde, int hasta) {
+        verificarCancelacion();
+        Ast.Cuerpo cuerpo = new Ast.Cuerpo();
+        int i = desde;
+        while (i < hasta) {
+            int siguiente = analizarEstructura(i, hasta, cuerpo.getEstructuras());
+            if (siguiente != -1) {
+                i = siguiente;
+                continue;
+            }
+            int[] variable = esInicioDeDeclaracion(i, desde) ? reconocerVariable(i, hasta) : null;
+            if (variable != null) {
+                Metricas.contar(Metricas.Contador.DECLARACIONES);
+                cuerpo.getVariables().add(analizarVariable(variable));
+                i = variable[VAR_FIN] + 1;
+                continue;
+            }
+            i++;
+        }
+        return cuerpo;
+    }
+
+    private Ast.Variable analizarVariable(int[] variable) {
+        int valor = variable[VAR_VALOR];
+        return new Ast.Variable(
+                tokens.fragmentoEntre(variable[VAR_TIPO], variable[VAR_FIN_TIPO] - 1),
+                tokens.fragmento(variable[VAR_NOMBRE]),
+                valor != -1 ? tokens.fragmentoEntre(valor, variable[VAR_FIN] - 1) : null);
+    }
+
+    // if / for / while con bloque que empieza en 'i': lo agrega a 'destino' y retorna el índice
+    // siguiente a su bloque (con el else, si lo tiene); -1 si en 'i' no empieza ninguno
+    private int analizarEstructura(int i, int hasta, List<Ast.Nodo> destino) {
+        if (tokens.tipo(i) != Lexer.IDENTIFICADOR) {
+            return -1;
+        }
+        int llave;
+        if ((llave = reconocerEstructura(i, hasta, "if")) != -1) {
+            Metricas.contar(Metricas.Contador.ESTRUCTURAS);
+            int cierre = extraerBloque(llave, hasta);
+            Ast.Cuerpo entonces = recorrerCuerpo(llave + 1, cierre);
+            Ast.Cuerpo sino = null;
+            int siguiente = cierre + 1;
+            if (siguiente + 1 < hasta && tokens.es(siguiente, "else")) {
+                if (tokens.tipo(siguiente + 1) == Lexer.LLAVE_ABRE) {
+                    int llaveElse = siguiente + 1;
+                    int cierreElse = extraerBloque(llaveElse, hasta);
+                    sino = recorrerCuerpo(llaveElse + 1, cierreElse);
+                    siguiente = cierreElse + 1;
+                } else if (tokens.es(siguiente + 1, "if")) {
+                    // else if: el if siguiente queda como única estructura del else
+                    Ast.Cuerpo cadena = new Ast.Cuerpo();
+                    int finCadena = analizarEstructura(siguiente + 1, hasta, cadena.getEstructuras());
+                    if (finCadena != -1) {
+                        sino = cadena;
+                        siguiente = finCadena;
+                    }
+                }
+            }
+            destino.add(new Ast.If(textoEntreTokens(i + 1, llave - 1), entonces, sino));
+            return siguiente;
+        }
+        if ((llave = reconocerEstructura(i, hasta, "for")) != -1) {
+            Metricas.contar(Metricas.Contador.ESTRUCTURAS);
+            int cierre = extraerBloque(llave, hasta);
+            destino.add(new Ast.For(textoEntreTokens(i + 1, llave - 1), recorrerCuerpo(llave + 1, cierre)));
+            return cierre + 1;
+        }
+        if ((llave = reconocerEstructura(i, hasta, "while")) != -1) {
+            Metricas.contar(Metricas.Contador.ESTRUCTURAS);
+            int cierre = extraerBloque(llave, hasta);
+            destino.add(new Ast.While(textoEntreTokens(i + 1, llave - 1), recorrerCuerpo(llave + 1, cierre)));
+            return cierre + 1;
+        }
+        return -1;
+    }
+
+    // ---------- Reconocedores sobre tokens ----------
+
+    // "class" Nombre [<...>] [extends ...] [implements ...] '{'  -> índice de la llave, o -1
+    private int reconocerClase(int i, int hasta) {
+        if (!esIdentificadorNoReservado(i + 1, hasta)) {
+            return -1;
+        }
+        int llave = tokens.siguienteFueraDeTipo(i + 2);
+        return llave < hasta && tokens.tipo(llave) == Lexer.LLAVE_ABRE ? llave : -1;
+    }
+
+    // "class" sin nombre o sin '{'
+    private void reportarClaseIncompleta(int i, int hasta) {
+        boolean conNombre = i + 1 < hasta && tokens.tipo(i + 1) == Lexer.IDENTIFICADOR;
+        int siguiente = conNombre ? i + 2 : i + 1;
+        if (conNombre) {
+            // Saltar la cabecera (extends / implements) hasta lo que la cortó
+            while (siguiente < hasta && tokens.tipo(siguiente) == Lexer.IDENTIFICADOR) siguiente++;
+        }
+        reportar(siguiente, "Declaración de clase incompleta", conNombre ? "'{'" : "el nombre de la clase");
+    }
+
+    // palabra '(' ... ')' '{'  -> índice de la llave de apertura, o -1
+    private int reconocerEstructura(int i, int hasta, String palabra) {
+        if (!tokens.es(i, palabra) || !tokens.esTipo(i + 1, Lexer.PAREN_ABRE)) {
+            return -1;
+        }
+        int cierre = cierreParentesis(i + 1, hasta);
+        if (cierre == -1 || cierre + 1 >= hasta || tokens.tipo(cierre + 1) != Lexer.LLAVE_ABRE) {
+            return -1;
+        }
+        return cierre + 1;
+    }
+
+    // [modificadores] Tipo nombre '(' parámetros ')' [throws ...] '{'
+    private int[] reconocerMetodo(int i, int hasta) {
+        if (i > 0 && tokens.es(i - 1, "new")) {
+            return null;
+        }
+        int inicioTipo = saltarModificadores(i, hasta);
+        int finTipo = reconocerTipo(inicioTipo, hasta);
+        if (finTipo == -1) {
+            return null;
+        }
+        int nombre = finTipo;
+        if (finTipo == inicioTipo + 1 && tokens.esTipo(finTipo, Lexer.PAREN_ABRE)) {
+            // Constructor: el nombre coincide con el tipo
+            nombre = inicioTipo;
+        } else if (!esIdentificadorNoReservado(nombre, hasta)) {
+            return null;
+        }
+        int paren = nombre + 1;
+        if (paren >= hasta || tokens.tipo(paren) != Lexer.PAREN_ABRE) {
+            return null;
+        }
+        int cierreParen = cierreParentesis(paren, hasta);
+        if (cierreParen == -1) {
+            return null;
+        }
+        int k = cierreParen + 1;
+        if (k < hasta && tokens.es(k, "throws")) {
+            k++;
+            while (k < hasta && (tokens.tipo(k) == Lexer.IDENTIFICADOR || tokens.tipo(k) == Lexer.COMA || tokens.tipo(k) == Lexer.PUNTO)) k++;
+        }
+        if (k >= hasta || tokens.tipo(k) != Lexer.LLAVE_ABRE) {
+            return null;
+        }
+        return new int[] { inicioTipo, finTipo == nombre ? finTipo : nombre + 1, nombre, paren, cierreParen, k };
+    }
+
+    // [modificadores] Tipo nombre [= valor] ';'
+    private int[] reconocerVariable(int i, int hasta) {
+        int inicioTipo = saltarModificadores(i, hasta);
+        int finTipo = reconocerTipo(inicioTipo, hasta);
+        if (finTipo == -1 || !esIdentificadorNoReservado(finTipo, hasta)) {
+            return null;
+        }
+        int nombre = finTipo;
+        int k = nombre + 1;
+        if (k >= hasta) {
+            return null;
+        }
+        if (tokens.tipo(k) == Lexer.PUNTO_Y_COMA) {
+            return new int[] { inicioTipo, finTipo, nombre, -1, k };
+        }
+        if (tokens.tipo(k) != Lexer.IGUAL || k + 1 >= hasta || tokens.tipo(k + 1) == Lexer.PUNTO_Y_COMA) {
+            return null;
+        }
+        // Modo pánico: el valor no puede seguir más allá del '}' que cierra el bloque de la declaración
+        int limite = Math.min(tokens.finDelContenedor(nombre), hasta);
+        int fin = tokens.siguientePuntoYComa(k + 1);
+        if (fin < limite) {
+            return new int[] { inicioTipo, finTipo, nombre, k + 1, fin };
+        }
+        reportar(limite, "Declaración de '" + tokens.texto(nombre) + "' sin terminar", "';'");
+        return null;
+    }
+
+    // Identificador [. Identificador]* [< ... >] [ '[' ']' ]*  -> índice siguiente al tipo, o -1
+    private int reconocerTipo(int i, int hasta) {
+        if (!esIdentificadorNoReservado(i, hasta)) {
+            return -1;
+        }
+        i++;
+        while (i + 1 < hasta && tokens.tipo(i) == Lexer.PUNTO && esIdentificadorNoReservado(i + 1, hasta)) {
+            i += 2;
+        }
+        if (i < hasta && tokens.tipo(i) == Lexer.MENOR) {
+            int cierre = tokens.cierreAngular(i);
+            if (cierre == -1 || cierre >= hasta) {
+                return -1;
+            }
+            i = cierre + 1;
+        }
+        while (i + 1 < hasta && tokens.tipo(i) == Lexer.CORCHETE_ABRE && tokens.tipo(i + 1) == Lexer.CORCHETE_CIERRA) {
+            i += 2;
+        }
+        return i;
+    }
+
+    private int saltarModificadores(int i, int hasta) {
+        while (i < hasta && tokens.tipo(i) == Lexer.IDENTIFICADOR && PalabrasClave.es(tokens.palabraClave(i), PalabrasClave.MODIFICADOR)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Evita reconocer declaraciones a mitad de un nombre calificado o de una expresión
+    private boolean esInicioDeDeclaracion(int i, int desde) {
+        if (i == desde) {
+            return true;
+        }
+        byte anterior = tokens.tipo(i - 1);
+        if (anterior == Lexer.IDENTIFICADOR) {
+            // Permitir anotaciones: @Override void m()
+            return i - 2 >= desde && tokens.es(i - 2, "@");
+        }
+        return anterior != Lexer.PUNTO && anterior != Lexer.MENOR && anterior != Lexer.MAYOR && anterior != Lexer.COMA;
+    }
+
+    private boolean esIdentificadorNoReservado(int i, int hasta) {
+        return i < hasta && tokens.tipo(i) == Lexer.IDENTIFICADOR && !PalabrasClave.es(tokens.palabraClave(i), PalabrasClave.RESERVADA);
+    }
+
+    // Índice del ')' que cierra al '(' de la posición 'abre', o -1 si no se cierra antes de 'hasta'.
+    // El TokenStream ya los emparejó: un '(' cuyo bloque termina antes de su ')' no tiene pareja.
+    private int cierreParentesis(int abre, int hasta) {
+        int cierre = tokens.pareja(abre);
+        return cierre < hasta ? cierre : -1;
+    }
+
+    // Vista del código entre dos tokens (excluyéndolos), sin espacios en los extremos
+    private FragmentoFuente textoEntreTokens(int abre, int cierra) {
+        return new FragmentoFuente(tokens.getFuente(), tokens.fin(abre), tokens.inicio(cierra)).trim();
+    }
+
+    // Retorna el índice de la llave que cierra el bloque abierto en 'llave' (consulta O(1) al índice de llaves).
+    // Si no tiene cierre, el bloque termina donde lo cerró la recuperación del TokenStream (ya reportado).
+    private int extraerBloque(int llave, int hasta) {
+        Metricas.contar(Metricas.Contador.EXTRAER_BLOQUE);
+        int cierre = tokens.finDeBloque(llave);
+        return cierre > hasta ? hasta : cierre;
+    }
+
+    // ---------- Diagnósticos ----------
+
+    // Llaves y paréntesis desbalanceados, una sola vez por región (el TokenStream ya los ubicó)
+    private void reportarLlavesYParentesis() {
+        for (int abre : tokens.getLlavesSinCerrar()) {
+            reportar(tokens.finDeBloque(abre), tokens.inicio(abre), "Bloque '{' sin cerrar", "'}'");
+        }
+        for (int cierra : tokens.getLlavesSobrantes()) {
+            diagnosticos.add(new Diagnostico(tokens.inicio(cierra), "Llave '}' sin bloque que cerrar", null, null));
+        }
+        for (int abre : tokens.getParentesisSinCerrar()) {
+            reportar(tokens.finDelContenedor(abre), tokens.inicio(abre), "Paréntesis '(' sin cerrar", "')'");
+        }
+        for (int cierra : tokens.getParentesisSobrantes()) {
+            diagnosticos.add(new Diagnostico(tokens.inicio(cierra), "Paréntesis ')' sin '(' que lo abra", null, null));
+        }
+    }
+
+    // Error en el token 'encontrado' (o al final del código si no hay más tokens)
+    private void reportar(int encontrado, String mensaje, String esperado) {
+        int posicion = encontrado < tokens.cantidad() ? tokens.inicio(encontrado) : finDelCodigo();
+        reportar(encontrado, posicion, mensaje, esperado);
+    }
+
+    private void reportar(int encontrado, int posicion, String mensaje, String esperado) {
+        String texto = encontrado < tokens.cantidad() ? "'" + tokens.texto(encontrado) + "'" : Diagnostico.FIN_DEL_CODIGO;
+        diagnosticos.add(new Diagnostico(posicion, mensaje, esperado, texto));
+    }
+
+    // Posición después del último token de la región
+    private int finDelCodigo() {
+        int n = tokens.cantidad();
+        return n == 0 ? 0 : tokens.fin(n - 1);
+    }
+
+    // Errores del último análisis, con línea y columna
+    public List<Diagnostico> getDiagnosticos() {
+        return Diagnostico.ubicar(codigoFuente == null ? "" : codigoFuente, diagnosticos);
+    }
+
+    public ModoAnalisis getModo() {
+        return modo;
+    }
+
+    public String mostrarCaracterPorCaracter() {
+        return ClasificadorCaracteres.reporte(codigoFuente);
+    }
+
+    // Variante agrupada: secuencias de caracteres de la misma clase e histograma por clase
+    public String mostrarCaracteresAgrupados() {
+        return ClasificadorCaracteres.reporteAgrupado(codigoFuente);
+    }
+
+    // Variante estructurada: arreglos de posición / carácter / clase en lugar de texto
+    public ReporteCaracteres clasificarCaracteres() {
+        return ClasificadorCaracteres.clasificarTodo(codigoFuente);
+    }
+}
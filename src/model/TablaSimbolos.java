@@ -0,0 +1,412 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tabla de símbolos de un documento analizado: clases, métodos con sus parámetros, atributos,
+ * variables e identificadores asignados en el pseudocódigo.
+ *
+ * Los símbolos quedan en ámbitos anidados que siguen al árbol (programa, clase, método, if, for...)
+ * y se arma en un solo recorrido del {@link Ast.Programa} ya construido, con la línea y la columna
+ * de cada nombre. Para buscar un nombre en muchos documentos está {@link IndiceSimbolos}.
+ */
+public final class TablaSimbolos {
+
+    public enum Categoria {
+        CLASE("Clase"),
+        METODO("Método"),
+        PARAMETRO("Parámetro"),
+        ATRIBUTO("Atributo"),
+        VARIABLE("Variable"),
+        ASIGNACION("Asignación");
+
+        private final String nombre;
+
+        Categoria(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    public static final class Simbolo {
+        private final String nombre;
+        private final Categoria categoria;
+        // Tipo declarado (null en clases y asignaciones)
+        private final CharSequence tipo;
+        // Parámetros de un método, valor inicial de una variable o expresión asignada (null si no hay)
+        private final CharSequence detalle;
+        private final Ambito ambito;
+        // Desplazamiento del nombre en el código (-1 si no se conoce) y su línea/columna desde 1
+        private final int posicion;
+        private int linea;
+        private int columna;
+
+        Simbolo(String nombre, Categoria categoria, CharSequence tipo, CharSequence detalle, Ambito ambito, int posicion) {
+            this.nombre = nombre;
+            this.categoria = categoria;
+            this.tipo = tipo;
+            this.detalle = detalle;
+            this.ambito = ambito;
+            this.posicion = posicion;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public Categoria getCategoria() {
+            return categoria;
+        }
+
+        public CharSequence getTipo() {
+            return tipo;
+        }
+
+        public CharSequence getDetalle() {
+            return detalle;
+        }
+
+        public Ambito getAmbito() {
+            return ambito;
+        }
+
+        public int getPosicion() {
+            return posicion;
+        }
+
+        public int getLinea() {
+            return linea;
+        }
+
+        public int getColumna() {
+            return columna;
+        }
+
+        // Declaración: todo menos las asignaciones del pseudocódigo
+        public boolean esDeclaracion() {
+            return categoria != Categoria.ASIGNACION;
+        }
+
+        // Le da un valor al nombre: asignación, o variable / atributo con valor inicial
+        public boolean esAsignacion() {
+            return categoria == Categoria.ASIGNACION
+                    || ((categoria == Categoria.VARIABLE || categoria == Categoria.ATRIBUTO) && detalle != null);
+        }
+
+        // "Línea 3, columna 9: Atributo int contador = 0"
+        @Override
+        public String toString() {
+            return linea > 0 ? "Línea " + linea + ", columna " + columna + ": " + getDescripcion() : getDescripcion();
+        }
+
+        // "Atributo int contador = 0", "Método void depositar(int monto)"
+        public String getDescripcion() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(categoria.getNombre()).append(' ');
+            if (tipo != null && tipo.length() > 0) {
+                sb.append(tipo).append(' ');
+            }
+            sb.append(nombre);
+            if (categoria == Categoria.METODO) {
+                sb.append('(').append(detalle == null ? "" : detalle).append(')');
+            } else if (detalle != null) {
+                sb.append(" = ").append(detalle);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Ámbito léxico: los símbolos declarados directamente en él y los ámbitos que contiene.
+     * Un nombre se resuelve en el ámbito y luego en los que lo encierran.
+     */
+    public static final class Ambito {
+        private final String nombre;
+        private final Ambito padre;
+        private final List<Simbolo> simbolos = new ArrayList<>();
+        private final List<Ambito> ambitos = new ArrayList<>();
+
+        Ambito(String nombre, Ambito padre) {
+            this.nombre = nombre;
+            this.padre = padre;
+            if (padre != null) {
+                padre.ambitos.add(this);
+            }
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        // null en el ámbito del programa
+        public Ambito getPadre() {
+            return padre;
+        }
+
+        public List<Simbolo> getSimbolos() {
+            return Collections.unmodifiableList(simbolos);
+        }
+
+        public List<Ambito> getAmbitos() {
+            return Collections.unmodifiableList(ambitos);
+        }
+
+        // "Programa > Clase Cuenta > Método depositar"
+        public String getRuta() {
+            return padre == null ? nombre : padre.getRuta() + " > " + nombre;
+        }
+
+        // Primer símbolo con ese nombre visible desde este ámbito (el más cercano), o null
+        public Simbolo resolver(String nombre) {
+            for (Ambito ambito = this; ambito != null; ambito = ambito.padre) {
+                for (Simbolo simbolo : ambito.simbolos) {
+                    if (simbolo.esDeclaracion() && simbolo.nombre.equals(nombre)) {
+                        return simbolo;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Ambito programa = new Ambito("Programa", null);
+    // Todos los símbolos en el orden en que aparecen en el código
+    private final List<Simbolo> simbolos = new ArrayList<>();
+
+    private TablaSimbolos() {
+    }
+
+    // Recorre el árbol de 'codigo'. Los nodos leídos de su forma binaria (Ast.Leido) no traen
+    // posiciones ni tipos: para ellos hay que volver a analizar el código.
+    public static TablaSimbolos construir(Ast.Programa arbol, String codigo) {
+        TablaSimbolos tabla = new TablaSimbolos();
+        tabla.agregarNodos(arbol.getElementos(), tabla.programa);
+        tabla.simbolos.sort(Comparator.comparingInt(Simbolo::getPosicion));
+        tabla.ubicar(codigo);
+        return tabla;
+    }
+
+    public Ambito getPrograma() {
+        return programa;
+    }
+
+    public List<Simbolo> getSimbolos() {
+        return Collections.unmodifiableList(simbolos);
+    }
+
+    // ============== Recorrido del árbol ==============
+
+    private void agregarNodos(List<? extends Ast.Nodo> nodos, Ambito ambito) {
+        for (Ast.Nodo nodo : nodos) {
+            agregarNodo(nodo, ambito);
+        }
+    }
+
+    private void agregarNodo(Ast.Nodo nodo, Ambito ambito) {
+        if (nodo instanceof Ast.Clase) {
+            agregarClase((Ast.Clase) nodo, ambito);
+        } else if (nodo instanceof Ast.Metodo) {
+            agregarMetodo((Ast.Metodo) nodo, ambito);
+        } else if (nodo instanceof Ast.Variable) {
+            agregarVariable((Ast.Variable) nodo, Categoria.VARIABLE, ambito);
+        } else if (nodo instanceof Ast.If) {
+            Ast.If si = (Ast.If) nodo;
+            agregarCuerpo(si.getEntonces(), new Ambito("If", ambito));
+            if (si.getSino() != null) {
+                agregarCuerpo(si.getSino(), new Ambito("Else", ambito));
+            }
+        } else if (nodo instanceof Ast.Bucle) {
+            Ast.Bucle bucle = (Ast.Bucle) nodo;
+            Ambito interno = new Ambito(nodo.etiqueta(), ambito);
+            if (nodo instanceof Ast.For) {
+                agregarVariableDeFor(bucle.getCondicion(), interno);
+            }
+            agregarCuerpo(bucle.getCuerpo(), interno);
+        } else if (nodo instanceof Ast.Si) {
+            Ast.Si si = (Ast.Si) nodo;
+            agregarNodos(si.getEntonces(), new Ambito("Si", ambito));
+            if (si.getSino() != null) {
+                agregarNodos(si.getSino(), new Ambito("Sino", ambito));
+            }
+        } else if (nodo instanceof Ast.Mientras) {
+            agregarNodos(((Ast.Mientras) nodo).getBloque(), new Ambito("Mientras", ambito));
+        } else if (nodo instanceof Ast.Para) {
+            Ast.Para para = (Ast.Para) nodo;
+            Ambito interno = new Ambito("Para", ambito);
+            agregarAsignacion(para.getControl(), interno);
+            agregarNodos(para.getBloque(), interno);
+        } else if (nodo instanceof Ast.Repetir) {
+            agregarNodos(((Ast.Repetir) nodo).getBloque(), new Ambito("Repetir", ambito));
+        } else if (nodo instanceof Ast.Asignacion) {
+            agregarAsignacion(((Ast.Asignacion) nodo).getTexto(), ambito);
+        } else if (nodo instanceof Ast.Grupo) {
+            // Declaraciones sueltas: sus variables son del mismo ámbito
+            agregarNodos(nodo.hijos(), ambito);
+        }
+    }
+
+    private void agregarClase(Ast.Clase clase, Ambito ambito) {
+        CharSequence nombre = clase.getNombre();
+        agregar(nombre, Categoria.CLASE, null, null, ambito);
+        Ambito interno = new Ambito("Clase " + nombre, ambito);
+        for (Ast.Variable atributo : clase.getAtributos()) {
+            agregarVariable(atributo, Categoria.ATRIBUTO, interno);
+        }
+        for (Ast.Metodo metodo : clase.getMetodos()) {
+            agregarMetodo(metodo, interno);
+        }
+        for (Ast.Clase interna : clase.getClases()) {
+            agregarClase(interna, interno);
+        }
+    }
+
+    private void agregarMetodo(Ast.Metodo metodo, Ambito ambito) {
+        CharSequence nombre = metodo.getNombre();
+        CharSequence parametros = metodo.getParametros();
+        // En un constructor el tipo es el mismo token que el nombre
+        CharSequence tipo = metodo.getTipo();
+        if (tipo instanceof FragmentoFuente && nombre instanceof FragmentoFuente
+                && ((FragmentoFuente) tipo).getInicio() == ((FragmentoFuente) nombre).getInicio()) {
+            tipo = null;
+        }
+        agregar(nombre, Categoria.METODO, tipo, parametros, ambito);
+        Ambito interno = new Ambito("Método " + nombre, ambito);
+        agregarParametros(parametros, interno);
+        agregarCuerpo(metodo.getCuerpo(), interno);
+    }
+
+    private void agregarCuerpo(Ast.Cuerpo cuerpo, Ambito ambito) {
+        for (Ast.Variable variable : cuerpo.getVariables()) {
+            agregarVariable(variable, Categoria.VARIABLE, ambito);
+        }
+        agregarNodos(cuerpo.getEstructuras(), ambito);
+    }
+
+    private void agregarVariable(Ast.Variable variable, Categoria categoria, Ambito ambito) {
+        agregar(variable.getNombre(), categoria, variable.getTipo(), variable.getValor(), ambito);
+    }
+
+    // "final Map<String, Integer> a, int... b, String[] c": se separa por las comas fuera de '<>'
+    // y cada parámetro es [modificadores] Tipo nombre (el nombre es la última palabra)
+    private void agregarParametros(CharSequence parametros, Ambito ambito) {
+        int nivel = 0;
+        int desde = 0;
+        for (int i = 0; i <= parametros.length(); i++) {
+            char c = i < parametros.length() ? parametros.charAt(i) : ',';
+            if (c == '<') {
+                nivel++;
+            } else if (c == '>') {
+                nivel--;
+            } else if (c == ',' && nivel <= 0) {
+                agregarDeclaracion(parametros.subSequence(desde, i), Categoria.PARAMETRO, null, ambito);
+                desde = i + 1;
+            }
+        }
+    }
+
+    // for (int i = 0; ...): la variable de control es del ámbito del for
+    private void agregarVariableDeFor(CharSequence condicion, Ambito ambito) {
+        int puntoYComa = indiceDe(condicion, ';', 0);
+        int igual = indiceDe(condicion, '=', 0);
+        if (puntoYComa != -1 && igual != -1 && igual < puntoYComa) {
+            agregarDeclaracion(condicion.subSequence(0, igual), Categoria.VARIABLE,
+                    recortar(condicion.subSequence(igual + 1, puntoYComa)), ambito);
+        }
+    }
+
+    // "Tipo nombre" (el tipo puede traer espacios, anotaciones o modificadores); se ignora si no hay tipo
+    private void agregarDeclaracion(CharSequence texto, Categoria categoria, CharSequence valor, Ambito ambito) {
+        CharSequence declaracion = recortar(texto);
+        int fin = declaracion.length();
+        int inicio = fin;
+        while (inicio > 0 && Character.isJavaIdentifierPart(declaracion.charAt(inicio - 1))) inicio--;
+        if (inicio == fin || !Character.isJavaIdentifierStart(declaracion.charAt(inicio))) {
+            return;
+        }
+        CharSequence tipo = recortar(declaracion.subSequence(0, inicio));
+        if (tipo.length() == 0) {
+            return;
+        }
+        agregar(declaracion.subSequence(inicio, fin), categoria, tipo, valor, ambito);
+    }
+
+    // Pseudocódigo: "x = expresión" (también el control de un para: "i = 1 hasta 10")
+    private void agregarAsignacion(CharSequence texto, Ambito ambito) {
+        int fin = 0;
+        while (fin < texto.length() && (Character.isLetterOrDigit(texto.charAt(fin)) || texto.charAt(fin) == '_')) fin++;
+        int igual = fin;
+        while (igual < texto.length() && texto.charAt(igual) == ' ') igual++;
+        if (fin == 0 || igual >= texto.length() || texto.charAt(igual) != '=') {
+            return;
+        }
+        agregar(texto.subSequence(0, fin), Categoria.ASIGNACION, null, recortar(texto.subSequence(igual + 1, texto.length())), ambito);
+    }
+
+    private void agregar(CharSequence nombre, Categoria categoria, CharSequence tipo, CharSequence detalle, Ambito ambito) {
+        int posicion = nombre instanceof FragmentoFuente ? ((FragmentoFuente) nombre).getInicio() : -1;
+        Simbolo simbolo = new Simbolo(nombre.toString(), categoria, tipo, detalle, ambito, posicion);
+        ambito.simbolos.add(simbolo);
+        simbolos.add(simbolo);
+    }
+
+    // ============== Utilidades ==============
+
+    private static int indiceDe(CharSequence texto, char c, int desde) {
+        for (int i = desde; i < texto.length(); i++) {
+            if (texto.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static CharSequence recortar(CharSequence texto) {
+        if (texto instanceof FragmentoFuente) {
+            return ((FragmentoFuente) texto).trim();
+        }
+        return texto.toString().trim();
+    }
+
+    // Línea y columna de cada símbolo: los símbolos ya están ordenados por posición, así que basta
+    // una pasada por el código (igual que Diagnostico.ubicar)
+    private void ubicar(String codigo) {
+        int linea = 1;
+        int inicioLinea = 0;
+        int i = 0;
+        for (Simbolo simbolo : simbolos) {
+            if (simbolo.posicion < 0) {
+                continue;
+            }
+            int hasta = Math.min(simbolo.posicion, codigo.length());
+            for (; i < hasta; i++) {
+                if (codigo.charAt(i) == '\n') {
+                    linea++;
+                    inicioLinea = i + 1;
+                }
+            }
+            simbolo.linea = linea;
+            simbolo.columna = hasta - inicioLinea + 1;
+        }
+    }
+
+    // ============== Presentación ==============
+
+    // Los ámbitos con sus símbolos, indentados como el árbol de derivación
+    public String renderizar() {
+        StringBuilder sb = new StringBuilder("Tabla de símbolos:\n");
+        renderizar(programa, 0, sb);
+        return sb.toString();
+    }
+
+    private static void renderizar(Ambito ambito, int nivel, StringBuilder sb) {
+        sb.append("  ".repeat(nivel)).append(ambito.nombre).append('\n');
+        for (Simbolo simbolo : ambito.simbolos) {
+            sb.append("  ".repeat(nivel + 1)).append(simbolo).append('\n');
+        }
+        for (Ambito interno : ambito.ambitos) {
+            renderizar(interno, nivel + 1, sb);
+        }
+    }
+}
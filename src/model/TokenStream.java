@@ -0,0 +1,434 @@
+/**
+ * Flujo compacto de tokens producido por {@link Lexer}.
+ * Cada token se guarda como (tipo, inicio, fin) en arreglos paralelos; los
+ * desplazamientos apuntan al código fuente original, así que no se copia texto.
+ */
+public class TokenStream {
+    private final String fuente;
+    private byte[] tipos;
+    private int[] inicios;
+    private int[] fines;
+    private int cantidad;
+    // Índice de llaves: pareja de cada '{' / '}' (y de cada '(' / ')'), profundidad de anidamiento
+    // y llave que abre el bloque más interno que contiene a cada token
+    private int[] pareja;
+    private int[] profundidad;
+    private int[] contenedor;
+    // Índices para los reconocedores, calculados la primera vez que se consultan (ver siguientePuntoYComa)
+    private int[] puntoYComa;
+    private int[] finDeTipo;
+    private int[] cierreAngular;
+    // Recuperación de errores: dónde termina cada '{' sin pareja (null si todas la tienen)
+    private int[] cierreImplicito;
+    private int[] llavesSinCerrar = new int[0];
+    private int[] llavesSobrantes = new int[0];
+    private int[] parentesisSinCerrar = new int[0];
+    private int[] parentesisSobrantes = new int[0];
+
+    TokenStream(String fuente, int capacidadInicial) {
+        this.fuente = fuente;
+        int capacidad = Math.max(16, capacidadInicial);
+        this.tipos = new byte[capacidad];
+        this.inicios = new int[capacidad];
+        this.fines = new int[capacidad];
+        this.cantidad = 0;
+    }
+
+    void agregar(byte tipo, int inicio, int fin) {
+        if (cantidad == tipos.length) {
+            int nuevaCapacidad = tipos.length + (tipos.length >> 1);
+            tipos = java.util.Arrays.copyOf(tipos, nuevaCapacidad);
+            inicios = java.util.Arrays.copyOf(inicios, nuevaCapacidad);
+            fines = java.util.Arrays.copyOf(fines, nuevaCapacidad);
+        }
+        tipos[cantidad] = tipo;
+        inicios[cantidad] = inicio;
+        fines[cantidad] = fin;
+        cantidad++;
+    }
+
+    /**
+     * Calcula en una sola pasada la llave que empareja a cada llave y la profundidad de cada token.
+     * Si las llaves no están balanceadas se repite la pasada con recuperación por sangría
+     * (ver {@link #emparejar}), para que una sola llave mal puesta no arrastre al resto del código.
+     */
+    void indexarLlaves() {
+        emparejar(false);
+        if (llavesSinCerrar.length > 0 || llavesSobrantes.length > 0) {
+            emparejar(true);
+        }
+    }
+
+    // Recuperación (solo con llaves desbalanceadas), para una '}' que es lo primero de su línea:
+    //  - si hay llaves sin cerrar y una llave abierta más afuera tiene la misma sangría que la '}',
+    //    los bloques de adentro se dan por cerrados ahí y la '}' cierra a esa llave;
+    //  - si sobran '}' y esta tiene más sangría que la línea de la llave abierta, se toma como sobrante.
+    // La sangría de cada llave abierta se calcula al apilarla, y por cada sangría se guarda la llave
+    // abierta más interna que la tiene: buscar la llave de la '}' no recorre la pila.
+    private void emparejar(boolean recuperar) {
+        boolean cerrarInternos = recuperar && llavesSinCerrar.length > 0;
+        boolean descartarSobrantes = recuperar && llavesSobrantes.length > 0;
+        pareja = new int[cantidad];
+        profundidad = new int[cantidad];
+        contenedor = new int[cantidad];
+        cierreImplicito = null;
+        ListaEnteros sinCerrar = new ListaEnteros();
+        ListaEnteros sobrantes = new ListaEnteros();
+        ListaEnteros parentesisSinCerrar = new ListaEnteros();
+        ListaEnteros parentesisSobrantes = new ListaEnteros();
+        int[] pila = new int[16];
+        int tope = 0;
+        // Solo al recuperar: sangría de cada llave de la pila, posición en la pila de la llave más
+        // interna con cada sangría (-1 si no hay) y la que la tenía antes de apilar cada llave
+        Sangrias lineas = recuperar ? new Sangrias(fuente) : null;
+        int[] sangrias = recuperar ? new int[16] : null;
+        int[] anteriorMisma = recuperar ? new int[16] : null;
+        int[] ultimaConSangria = recuperar ? new int[0] : null;
+        // Paréntesis abiertos y la cantidad de llaves abiertas cuando se abrió cada uno
+        int[] parentesis = new int[16];
+        int[] nivelParentesis = new int[16];
+        int abiertos = 0;
+        for (int i = 0; i < cantidad; i++) {
+            pareja[i] = -1;
+            contenedor[i] = tope > 0 ? pila[tope - 1] : -1;
+            byte t = tipos[i];
+            if (t == Lexer.LLAVE_ABRE) {
+                profundidad[i] = tope;
+                if (tope == pila.length) {
+                    pila = java.util.Arrays.copyOf(pila, tope * 2);
+                    if (recuperar) {
+                        sangrias = java.util.Arrays.copyOf(sangrias, tope * 2);
+                        anteriorMisma = java.util.Arrays.copyOf(anteriorMisma, tope * 2);
+                    }
+                }
+                if (recuperar) {
+                    int sangria = lineas.de(inicios[i]);
+                    if (sangria >= ultimaConSangria.length) {
+                        int largo = ultimaConSangria.length;
+                        ultimaConSangria = java.util.Arrays.copyOf(ultimaConSangria, Math.max(sangria + 1, largo * 2));
+                        java.util.Arrays.fill(ultimaConSangria, largo, ultimaConSangria.length, -1);
+                    }
+                    sangrias[tope] = sangria;
+                    anteriorMisma[tope] = ultimaConSangria[sangria];
+                    ultimaConSangria[sangria] = tope;
+                }
+                pila[tope++] = i;
+            } else if (t == Lexer.LLAVE_CIERRA) {
+                if (tope > 0 && (cerrarInternos || descartarSobrantes) && esPrimeroDeLinea(i)) {
+                    int sangria = lineas.de(inicios[i]);
+                    if (descartarSobrantes && sangria > sangrias[tope - 1]) {
+                        sobrantes.agregar(i);
+                        profundidad[i] = tope;
+                        continue;
+                    }
+                    if (cerrarInternos && sangria < sangrias[tope - 1]) {
+                        // Bajando por la pila, la primera llave con sangría <= la de la '}' es la más
+                        // interna con esa misma sangría, salvo que otra con menos sangría esté más adentro
+                        int k = sangria < ultimaConSangria.length ? ultimaConSangria[sangria] : -1;
+                        for (int menor = 0; k != -1 && menor < sangria; menor++) {
+                            if (ultimaConSangria[menor] > k) {
+                                k = -1;
+                            }
+                        }
+                        if (k != -1) {
+                            while (tope - 1 > k) {
+                                tope--;
+                                ultimaConSangria[sangrias[tope]] = anteriorMisma[tope];
+                                cerrarImplicitamente(pila[tope], i, sinCerrar);
+                            }
+                        }
+                    }
+                }
+                if (tope == 0) {
+                    sobrantes.agregar(i);
+                    profundidad[i] = 0;
+                    continue;
+                }
+                int abre = pila[--tope];
+                if (recuperar) {
+                    ultimaConSangria[sangrias[tope]] = anteriorMisma[tope];
+                }
+                pareja[abre] = i;
+                pareja[i] = abre;
+                profundidad[i] = tope;
+                contenedor[i] = tope > 0 ? pila[tope - 1] : -1;
+                // Un '(' abierto dentro del bloque que se cierra ya no puede cerrarse
+                while (abiertos > 0 && nivelParentesis[abiertos - 1] > tope) {
+                    parentesisSinCerrar.agregar(parentesis[--abiertos]);
+                }
+            } else {
+                profundidad[i] = tope;
+                if (t == Lexer.PAREN_ABRE) {
+                    if (abiertos == parentesis.length) {
+                        parentesis = java.util.Arrays.copyOf(parentesis, abiertos * 2);
+                        nivelParentesis = java.util.Arrays.copyOf(nivelParentesis, abiertos * 2);
+                    }
+                    parentesis[abiertos] = i;
+                    nivelParentesis[abiertos++] = tope;
+                } else if (t == Lexer.PAREN_CIERRA) {
+                    if (abiertos > 0 && nivelParentesis[abiertos - 1] == tope) {
+                        int abre = parentesis[--abiertos];
+                        pareja[abre] = i;
+                        pareja[i] = abre;
+                    } else {
+                        parentesisSobrantes.agregar(i);
+                    }
+                }
+            }
+        }
+        while (tope > 0) {
+            cerrarImplicitamente(pila[--tope], cantidad, sinCerrar);
+        }
+        while (abiertos > 0) {
+            parentesisSinCerrar.agregar(parentesis[--abiertos]);
+        }
+        llavesSinCerrar = sinCerrar.ordenados();
+        llavesSobrantes = sobrantes.ordenados();
+        this.parentesisSinCerrar = parentesisSinCerrar.ordenados();
+        this.parentesisSobrantes = parentesisSobrantes.ordenados();
+    }
+
+    private void cerrarImplicitamente(int abre, int cierre, ListaEnteros sinCerrar) {
+        if (cierreImplicito == null) {
+            cierreImplicito = new int[cantidad];
+        }
+        cierreImplicito[abre] = cierre;
+        sinCerrar.agregar(abre);
+    }
+
+    private boolean esPrimeroDeLinea(int i) {
+        for (int p = inicios[i] - 1; p >= 0; p--) {
+            char c = fuente.charAt(p);
+            if (c == '\n') return true;
+            if (c != ' ' && c != '\t' && c != '\r') return false;
+        }
+        return true;
+    }
+
+    // Sangría (en columnas, tabulación = 4) de la línea que contiene cada posición. Las posiciones
+    // se piden en orden creciente: el código se recorre una sola vez y cada línea se mide una vez
+    private static final class Sangrias {
+        private final String fuente;
+        private int recorrido;
+        private int inicioLinea;
+        private int sangria = -1;
+
+        Sangrias(String fuente) {
+            this.fuente = fuente;
+        }
+
+        int de(int posicion) {
+            for (; recorrido < posicion; recorrido++) {
+                if (fuente.charAt(recorrido) == '\n') {
+                    inicioLinea = recorrido + 1;
+                    sangria = -1;
+                }
+            }
+            if (sangria == -1) {
+                int columnas = 0;
+                for (int p = inicioLinea; p < fuente.length(); p++) {
+                    char c = fuente.charAt(p);
+                    if (c == ' ') columnas++;
+                    else if (c == '\t') columnas = (columnas / 4 + 1) * 4;
+                    else break;
+                }
+                sangria = columnas;
+            }
+            return sangria;
+        }
+    }
+
+    // Lista de índices de token que crece sin cajas de Integer
+    private static final class ListaEnteros {
+        private int[] datos = new int[4];
+        private int cantidad;
+
+        void agregar(int valor) {
+            if (cantidad == datos.length) {
+                datos = java.util.Arrays.copyOf(datos, cantidad * 2);
+            }
+            datos[cantidad++] = valor;
+        }
+
+        int[] ordenados() {
+            int[] copia = java.util.Arrays.copyOf(datos, cantidad);
+            java.util.Arrays.sort(copia);
+            return copia;
+        }
+    }
+
+    // Índice de la llave que cierra el bloque abierto en 'abre'. Si no tiene pareja, el token donde la
+    // recuperación lo dio por cerrado (una '}' de un bloque exterior, o cantidad() al final del código)
+    public int finDeBloque(int abre) {
+        int cierre = pareja[abre];
+        return cierre != -1 ? cierre : cierreImplicito[abre];
+    }
+
+    // Tokens '{' sin su '}', '}' sin su '{', '(' sin su ')' y ')' sin su '(' (en orden)
+    public int[] getLlavesSinCerrar() {
+        return llavesSinCerrar;
+    }
+
+    public int[] getLlavesSobrantes() {
+        return llavesSobrantes;
+    }
+
+    public int[] getParentesisSinCerrar() {
+        return parentesisSinCerrar;
+    }
+
+    public int[] getParentesisSobrantes() {
+        return parentesisSobrantes;
+    }
+
+    // Índice del '}' que cierra el bloque más interno que contiene al token i (cantidad() si está en
+    // el primer nivel). Es el primer '}' después de i con menos profundidad que i.
+    public int finDelContenedor(int i) {
+        int abre = contenedor[i];
+        return abre == -1 ? cantidad : finDeBloque(abre);
+    }
+
+    // Índice de la llave o paréntesis que empareja al del token i, o -1 si no tiene pareja
+    public int pareja(int i) {
+        return pareja[i];
+    }
+
+    // Los tres índices siguientes reemplazan búsquedas hacia adelante que los reconocedores repetían
+    // desde cada token candidato (cuadráticas en una línea larga sin ';' o sin '>'). Cada uno se
+    // calcula en una pasada, así que reconocer una declaración cuesta O(1) además de su propio texto.
+
+    // Índice del primer ';' desde el token i (inclusive), o cantidad() si no hay más
+    public int siguientePuntoYComa(int i) {
+        if (puntoYComa == null) {
+            int[] indice = new int[cantidad + 1];
+            indice[cantidad] = cantidad;
+            for (int k = cantidad - 1; k >= 0; k--) {
+                indice[k] = tipos[k] == Lexer.PUNTO_Y_COMA ? k : indice[k + 1];
+            }
+            puntoYComa = indice;
+        }
+        return puntoYComa[i];
+    }
+
+    // Índice del primer token desde i (inclusive) que no puede ser parte de un tipo: identificadores,
+    // '.', ',', '<', '>', '[', ']' y '?' (por ejemplo Map<String, List<int[]>>); cantidad() si no hay más
+    public int siguienteFueraDeTipo(int i) {
+        if (finDeTipo == null) {
+            indexarTipos();
+        }
+        return finDeTipo[i];
+    }
+
+    // Índice del '>' que cierra al '<' del token i dentro del mismo tramo de tipo, o -1
+    public int cierreAngular(int i) {
+        if (finDeTipo == null) {
+            indexarTipos();
+        }
+        return cierreAngular[i];
+    }
+
+    private void indexarTipos() {
+        int[] fin = new int[cantidad + 1];
+        int[] angular = new int[cantidad];
+        fin[cantidad] = cantidad;
+        for (int k = cantidad - 1; k >= 0; k--) {
+            fin[k] = esDeTipo(k) ? fin[k + 1] : k;
+        }
+        // Emparejar '<' y '>' con una pila que se vacía al terminar cada tramo
+        int[] pila = new int[16];
+        int tope = 0;
+        for (int k = 0; k < cantidad; k++) {
+            angular[k] = -1;
+            byte t = tipos[k];
+            if (!esDeTipo(k)) {
+                tope = 0;
+            } else if (t == Lexer.MENOR) {
+                if (tope == pila.length) {
+                    pila = java.util.Arrays.copyOf(pila, tope * 2);
+                }
+                pila[tope++] = k;
+            } else if (t == Lexer.MAYOR) {
+                if (tope > 0) {
+                    angular[pila[--tope]] = k;
+                }
+            }
+        }
+        cierreAngular = angular;
+        finDeTipo = fin;
+    }
+
+    private boolean esDeTipo(int i) {
+        byte t = tipos[i];
+        return t == Lexer.IDENTIFICADOR || t == Lexer.PUNTO || t == Lexer.COMA || t == Lexer.MENOR || t == Lexer.MAYOR
+                || t == Lexer.CORCHETE_ABRE || t == Lexer.CORCHETE_CIERRA
+                || (fines[i] - inicios[i] == 1 && fuente.charAt(inicios[i]) == '?');
+    }
+
+    // Cantidad de bloques '{...}' que encierran al token i
+    public int profundidad(int i) {
+        return profundidad[i];
+    }
+
+    public String getFuente() {
+        return fuente;
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    // Memoria aproximada de los arreglos (los índices que todavía no se calcularon no cuentan)
+    public long bytesEstimados() {
+        return tipos.length + 4L * (inicios.length + fines.length + largo(pareja) + largo(profundidad)
+                + largo(contenedor) + largo(puntoYComa) + largo(finDeTipo) + largo(cierreAngular) + largo(cierreImplicito)
+                + llavesSinCerrar.length + llavesSobrantes.length + parentesisSinCerrar.length + parentesisSobrantes.length);
+    }
+
+    private static int largo(int[] arreglo) {
+        return arreglo == null ? 0 : arreglo.length;
+    }
+
+    public byte tipo(int i) {
+        return tipos[i];
+    }
+
+    public int inicio(int i) {
+        return inicios[i];
+    }
+
+    public int fin(int i) {
+        return fines[i];
+    }
+
+    // Compara el texto del token sin crear un String nuevo
+    public boolean es(int i, String palabra) {
+        int largo = fines[i] - inicios[i];
+        return largo == palabra.length() && fuente.regionMatches(inicios[i], palabra, 0, largo);
+    }
+
+    // Índice en PalabrasClave del texto del token (palabra completa, distingue mayúsculas), o -1
+    public int palabraClave(int i) {
+        return PalabrasClave.buscar(fuente, inicios[i], fines[i]);
+    }
+
+    public boolean esTipo(int i, byte tipo) {
+        return i >= 0 && i < cantidad && tipos[i] == tipo;
+    }
+
+    public String texto(int i) {
+        return fuente.substring(inicios[i], fines[i]);
+    }
+
+    // Vista (sin copia) del texto del token i
+    public FragmentoFuente fragmento(int i) {
+        return new FragmentoFuente(fuente, inicios[i], fines[i]);
+    }
+
+    // Vista del código fuente entre el inicio del token 'desde' y el fin del token 'hasta' (inclusive)
+    public FragmentoFuente fragmentoEntre(int desde, int hasta) {
+        if (desde > hasta) {
+            return new FragmentoFuente(fuente, inicios[desde], inicios[desde]);
+        }
+        return new FragmentoFuente(fuente, inicios[desde], fines[hasta]);
+    }
+}
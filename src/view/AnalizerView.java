@@ -1,18 +1,47 @@
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class AnalizerView extends JFrame {
     private AnalizerController controlador;
     
     // Componentes de la interfaz
     private JTextArea areaEntrada;
-    private JTextArea areaCaracteres;
-    private JTextArea areaArbol;
+    // Listas y árbol virtualizados: solo se arman las filas visibles
+    private JList<String> listaCaracteres;
+    private JTree arbolDerivacion;
     private JButton botonAnalizar;
     private JButton botonLimpiar;
+    private JCheckBox casillaAgrupar;
+    private JCheckBox casillaEnVivo;
+    // Espera a que el usuario deje de escribir antes de re-analizar
+    private Timer temporizadorEnVivo;
+    private static final int RETARDO_EN_VIVO_MS = 300;
+    // Análisis en segundo plano: el reporte de caracteres y el árbol se calculan en paralelo
+    private final ExecutorService ejecutorAnalisis = Executors.newCachedThreadPool(tarea -> {
+        Thread hilo = new Thread(tarea, "analisis");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    // Trabajo en curso; uno nuevo (clic o edición) lo reemplaza y cancela
+    private TrabajoAnalisis trabajoActual;
+    private JProgressBar barraProgreso;
+    private JButton botonCancelar;
     
     public AnalizerView(AnalizerController controlador) {
         this.controlador = controlador;
@@ -82,6 +111,33 @@ public class AnalizerView extends JFrame {
                            "   x = x + 1\n" +
                            "finmientras\n");
         
+        // Análisis en vivo: cada edición reprograma el re-análisis incremental
+        temporizadorEnVivo = new Timer(RETARDO_EN_VIVO_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                analizarEnVivo();
+            }
+        });
+        temporizadorEnVivo.setRepeats(false);
+        areaEntrada.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                cancelarAnalisis();
+                programarAnalisisEnVivo();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                cancelarAnalisis();
+                programarAnalisisEnVivo();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Cambios de atributos: no afectan al texto
+            }
+        });
+        
         JScrollPane scrollEntrada = new JScrollPane(areaEntrada);
         scrollEntrada.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollEntrada.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -99,13 +155,12 @@ public class AnalizerView extends JFrame {
         JPanel panelCaracteres = new JPanel(new BorderLayout());
         panelCaracteres.setBorder(new TitledBorder("Análisis Carácter por Carácter"));
         
-        areaCaracteres = new JTextArea();
-        areaCaracteres.setFont(new Font("Consolas", Font.PLAIN, 11));
-        areaCaracteres.setEditable(false);
-        areaCaracteres.setBackground(new Color(248, 248, 248));
-        areaCaracteres.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        listaCaracteres = new JList<>(new DefaultListModel<>());
+        listaCaracteres.setFont(new Font("Consolas", Font.PLAIN, 11));
+        listaCaracteres.setBackground(new Color(248, 248, 248));
+        listaCaracteres.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
         
-        JScrollPane scrollCaracteres = new JScrollPane(areaCaracteres);
+        JScrollPane scrollCaracteres = new JScrollPane(listaCaracteres);
         scrollCaracteres.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollCaracteres.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
         
@@ -115,13 +170,15 @@ public class AnalizerView extends JFrame {
         JPanel panelArbol = new JPanel(new BorderLayout());
         panelArbol.setBorder(new TitledBorder("Árbol de Derivación"));
         
-        areaArbol = new JTextArea();
-        areaArbol.setFont(new Font("Consolas", Font.PLAIN, 11));
-        areaArbol.setEditable(false);
-        areaArbol.setBackground(new Color(248, 248, 248));
-        areaArbol.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        arbolDerivacion = new JTree(new DefaultTreeModel(null));
+        arbolDerivacion.setFont(new Font("Consolas", Font.PLAIN, 11));
+        arbolDerivacion.setBackground(new Color(248, 248, 248));
+        arbolDerivacion.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        // Alto de fila fijo + modelo grande: el JTree no mide ni guarda filas fuera de la vista
+        arbolDerivacion.setRowHeight(arbolDerivacion.getFontMetrics(arbolDerivacion.getFont()).getHeight() + 2);
+        arbolDerivacion.setLargeModel(true);
         
-        JScrollPane scrollArbol = new JScrollPane(areaArbol);
+        JScrollPane scrollArbol = new JScrollPane(arbolDerivacion);
         scrollArbol.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollArbol.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
         
@@ -162,8 +219,39 @@ public class AnalizerView extends JFrame {
             }
         });
         
+        // Modo agrupado: útil para entradas grandes, donde el listado por carácter es enorme
+        casillaAgrupar = new JCheckBox("Agrupar caracteres");
+        casillaAgrupar.setFont(new Font("Arial", Font.PLAIN, 12));
+        
         panel.add(botonAnalizar);
         panel.add(botonLimpiar);
+        panel.add(casillaAgrupar);
+        
+        casillaEnVivo = new JCheckBox("Análisis en vivo");
+        casillaEnVivo.setFont(new Font("Arial", Font.PLAIN, 12));
+        casillaEnVivo.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                programarAnalisisEnVivo();
+            }
+        });
+        panel.add(casillaEnVivo);
+        
+        botonCancelar = new JButton("Cancelar");
+        botonCancelar.setFont(new Font("Arial", Font.PLAIN, 12));
+        botonCancelar.setEnabled(false);
+        botonCancelar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cancelarAnalisis();
+            }
+        });
+        barraProgreso = new JProgressBar(0, 100);
+        barraProgreso.setStringPainted(true);
+        barraProgreso.setString("");
+        barraProgreso.setPreferredSize(new Dimension(160, 20));
+        panel.add(botonCancelar);
+        panel.add(barraProgreso);
         
         return panel;
     }
@@ -179,33 +267,178 @@ public class AnalizerView extends JFrame {
             return;
         }
         
-        try {
-            // Análisis de caracteres
-            String analisisCaracteres = controlador.obtenerAnalisisCaracteres(codigo);
-            areaCaracteres.setText(analisisCaracteres);
-            
-            // Árbol de derivación
-            String arbolDerivacion = controlador.obtenerArbolDerivacion(codigo);
-            areaArbol.setText(arbolDerivacion);
-            
-            // Mostrar mensaje de éxito
-            JOptionPane.showMessageDialog(this, 
-                "Análisis completado exitosamente.", 
-                "Éxito", 
-                JOptionPane.INFORMATION_MESSAGE);
-                
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error durante el análisis: " + e.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+        iniciarAnalisis(new TrabajoAnalisis(codigo, casillaAgrupar.isSelected(), false));
+    }
+    
+    private void programarAnalisisEnVivo() {
+        if (casillaEnVivo != null && casillaEnVivo.isSelected()) {
+            temporizadorEnVivo.restart();
+        }
+    }
+    
+    // Re-analiza solo las construcciones de primer nivel que cambiaron desde la última vez
+    private void analizarEnVivo() {
+        if (!casillaEnVivo.isSelected()) {
+            return;
+        }
+        iniciarAnalisis(new TrabajoAnalisis(areaEntrada.getText(), casillaAgrupar.isSelected(), true));
+    }
+    
+    private void iniciarAnalisis(TrabajoAnalisis trabajo) {
+        cancelarAnalisis();
+        trabajoActual = trabajo;
+        trabajo.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evento) {
+                if (trabajo == trabajoActual && "progress".equals(evento.getPropertyName())) {
+                    barraProgreso.setValue((Integer) evento.getNewValue());
+                }
+            }
+        });
+        barraProgreso.setValue(0);
+        barraProgreso.setString("Analizando...");
+        botonCancelar.setEnabled(true);
+        trabajo.execute();
+    }
+    
+    private void cancelarAnalisis() {
+        if (trabajoActual != null && !trabajoActual.isDone()) {
+            trabajoActual.cancel(true);
+        }
+    }
+    
+    private void terminarAnalisis(String estado) {
+        botonCancelar.setEnabled(false);
+        barraProgreso.setString(estado);
+    }
+    
+    // Resultado de una de las dos tareas (el modelo del árbol o el de la lista), para mostrarlo apenas está listo
+    private static final class Parcial {
+        final TreeModel arbol;
+        final ListModel<String> caracteres;
+        final String prototipo;
+        
+        Parcial(TreeModel arbol) {
+            this.arbol = arbol;
+            this.caracteres = null;
+            this.prototipo = null;
+        }
+        
+        Parcial(ListModel<String> caracteres, String prototipo) {
+            this.arbol = null;
+            this.caracteres = caracteres;
+            this.prototipo = prototipo;
+        }
+    }
+    
+    /**
+     * Un análisis completo fuera del EDT. Analiza el texto una sola vez y prepara los modelos de
+     * la lista de caracteres y del árbol como dos tareas paralelas; publica cada uno en cuanto
+     * termina y, si se cancela, interrumpe ambas.
+     */
+    private final class TrabajoAnalisis extends SwingWorker<Void, Parcial> {
+        private final String codigo;
+        private final boolean agrupar;
+        private final boolean enVivo;
+        // Errores de sintaxis del resultado (se muestran en el árbol, al final)
+        private volatile int errores;
+        
+        TrabajoAnalisis(String codigo, boolean agrupar, boolean enVivo) {
+            this.codigo = codigo;
+            this.agrupar = agrupar;
+            this.enVivo = enVivo;
+        }
+        
+        @Override
+        protected Void doInBackground() throws Exception {
+            ResultadoAnalisis resultado = enVivo
+                    ? controlador.obtenerResultadoIncremental(codigo)
+                    : controlador.obtenerResultado(codigo);
+            setProgress(40);
+            CompletionService<Parcial> tareas = new ExecutorCompletionService<>(ejecutorAnalisis);
+            Future<Parcial> caracteres = tareas.submit(() -> {
+                if (agrupar) {
+                    ModeloListaLineas lineas = new ModeloListaLineas(resultado.getTextoAgrupado());
+                    return new Parcial(lineas, lineas.getPrototipo());
+                }
+                ModeloListaCaracteres lista = new ModeloListaCaracteres(resultado.getCaracteres());
+                return new Parcial(lista, lista.getPrototipo());
+            });
+            Future<Parcial> arbol = tareas.submit(() -> new Parcial(resultado.getCodigo().isEmpty()
+                    ? new ModeloArbolAst(resultado.getTextoArbol())
+                    : new ModeloArbolAst(resultado.getArbol())));
+            try {
+                for (int terminadas = 1; terminadas <= 2; terminadas++) {
+                    publish(tareas.take().get());
+                    setProgress(40 + terminadas * 30);
+                }
+            } finally {
+                // Si este trabajo fue cancelado (o falló una tarea), no dejar la otra corriendo
+                caracteres.cancel(true);
+                arbol.cancel(true);
+            }
+            errores = resultado.getDiagnosticos().size();
+            return null;
+        }
+        
+        @Override
+        protected void process(List<Parcial> parciales) {
+            if (isCancelled() || this != trabajoActual) {
+                return;
+            }
+            for (Parcial parcial : parciales) {
+                if (parcial.arbol != null) {
+                    arbolDerivacion.setModel(parcial.arbol);
+                    // Solo el primer nivel; el resto se arma al expandir
+                    arbolDerivacion.expandRow(0);
+                } else {
+                    // El prototipo fija alto y ancho de celda: la lista no mide cada fila
+                    listaCaracteres.setPrototypeCellValue(parcial.prototipo);
+                    listaCaracteres.setModel(parcial.caracteres);
+                }
+            }
+        }
+        
+        @Override
+        protected void done() {
+            if (this != trabajoActual) {
+                // Reemplazado por un trabajo más nuevo, que ya maneja la interfaz
+                return;
+            }
+            if (isCancelled()) {
+                terminarAnalisis("Cancelado");
+                return;
+            }
+            try {
+                get();
+                terminarAnalisis(errores == 0 ? "Listo" : "Listo: " + errores + " error(es) de sintaxis");
+                if (!enVivo) {
+                    // Mostrar mensaje de éxito
+                    JOptionPane.showMessageDialog(AnalizerView.this, 
+                        errores == 0
+                            ? "Análisis completado exitosamente."
+                            : "Análisis completado con " + errores + " error(es) de sintaxis (ver \"Errores de sintaxis\" en el árbol).", 
+                        errores == 0 ? "Éxito" : "Análisis con errores", 
+                        errores == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                terminarAnalisis("Error");
+                Throwable causa = e.getCause() instanceof ExecutionException ? e.getCause().getCause() : e.getCause();
+                if (!enVivo) {
+                    JOptionPane.showMessageDialog(AnalizerView.this, 
+                        "Error durante el análisis: " + (causa != null ? causa.getMessage() : e.getMessage()), 
+                        "Error", 
+                        JOptionPane.ERROR_MESSAGE);
+                }
+                e.printStackTrace();
+            }
         }
     }
     
     private void limpiarResultados() {
-        areaCaracteres.setText("");
-        areaArbol.setText("");
+        cancelarAnalisis();
+        listaCaracteres.setModel(new DefaultListModel<>());
+        arbolDerivacion.setModel(new DefaultTreeModel(null));
         areaEntrada.setText("");
     }
     
@@ -225,7 +458,7 @@ public class AnalizerView extends JFrame {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                AnalizerController controlador = new AnalizerController(null);
+                AnalizerController controlador = new AnalizerController();
                 AnalizerView vista = new AnalizerView(controlador);
                 vista.mostrar();
             }
@@ -0,0 +1,141 @@
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+/**
+ * Modelo de JTree directamente sobre las filas de {@link ArbolColumnar}, sin pasar por el texto
+ * renderizado. Cada fila se crea recién cuando el JTree la pide (al expandir su padre), así que
+ * abrir un árbol con cientos de miles de nodos cuesta lo mismo que abrir uno chico.
+ * Las filas siguen el mismo orden que {@link Ast#renderizar}: etiqueta, detalles e hijos.
+ */
+public class ModeloArbolAst implements TreeModel {
+    private final Fila raiz;
+
+    public ModeloArbolAst(ArbolColumnar arbol) {
+        this.raiz = new Fila(arbol, 0, null);
+    }
+
+    // Árbol de una sola fila con un mensaje (por ejemplo, el error de código vacío)
+    public ModeloArbolAst(String mensaje) {
+        this.raiz = new Fila(null, -1, mensaje);
+    }
+
+    /**
+     * Una fila del árbol: un nodo o una línea de detalle (hoja).
+     * Los hijos se cuentan una vez, en la primera consulta, y se envuelven uno por uno.
+     */
+    static final class Fila {
+        private final ArbolColumnar arbol;
+        private final int fila;
+        private final String texto;
+        private int[] indices;
+        private Fila[] filas;
+
+        Fila(ArbolColumnar arbol, int fila, String texto) {
+            this.arbol = arbol;
+            this.fila = fila;
+            this.texto = texto;
+        }
+
+        private boolean esNodo() {
+            return arbol != null && arbol.clase(fila) == ArbolColumnar.NODO;
+        }
+
+        private void cargar() {
+            if (filas != null) {
+                return;
+            }
+            int cantidad = 0;
+            if (esNodo()) {
+                for (int hijo = arbol.primerHijo(fila); hijo != -1; hijo = arbol.siguienteHermano(hijo)) {
+                    cantidad++;
+                }
+            }
+            indices = new int[cantidad];
+            for (int hijo = cantidad == 0 ? -1 : arbol.primerHijo(fila), i = 0; hijo != -1; hijo = arbol.siguienteHermano(hijo)) {
+                indices[i++] = hijo;
+            }
+            filas = new Fila[cantidad];
+        }
+
+        int cantidad() {
+            cargar();
+            return filas.length;
+        }
+
+        Fila fila(int i) {
+            cargar();
+            Fila hija = filas[i];
+            if (hija == null) {
+                hija = new Fila(arbol, indices[i], null);
+                filas[i] = hija;
+            }
+            return hija;
+        }
+
+        int indiceDe(Fila hija) {
+            cargar();
+            for (int i = 0; i < filas.length; i++) {
+                if (filas[i] == hija) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // Índice de la fila en el ArbolColumnar, o -1 en el árbol de un mensaje
+        public int getFila() {
+            return fila;
+        }
+
+        // Lo que muestra el JTree
+        @Override
+        public String toString() {
+            return arbol != null ? arbol.texto(fila) : texto;
+        }
+    }
+
+    @Override
+    public Object getRoot() {
+        return raiz;
+    }
+
+    @Override
+    public Object getChild(Object padre, int indice) {
+        return ((Fila) padre).fila(indice);
+    }
+
+    @Override
+    public int getChildCount(Object padre) {
+        return ((Fila) padre).cantidad();
+    }
+
+    @Override
+    public boolean isLeaf(Object nodo) {
+        // Las líneas de detalle son hojas sin calcular nada; los nodos, según sus hijos
+        Fila fila = (Fila) nodo;
+        return !fila.esNodo() || fila.cantidad() == 0;
+    }
+
+    @Override
+    public int getIndexOfChild(Object padre, Object hijo) {
+        if (padre == null || hijo == null) {
+            return -1;
+        }
+        return ((Fila) padre).indiceDe((Fila) hijo);
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object nuevoValor) {
+        // El árbol es de solo lectura
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        // El modelo no cambia: cada análisis crea uno nuevo
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+    }
+}
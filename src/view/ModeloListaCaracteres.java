@@ -0,0 +1,38 @@
+import javax.swing.AbstractListModel;
+
+/**
+ * Modelo de JList para el análisis carácter por carácter. Cada fila se arma al pedirla a
+ * partir de los arreglos de {@link ReporteCaracteres}, sin generar el reporte completo.
+ */
+public class ModeloListaCaracteres extends AbstractListModel<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final ReporteCaracteres reporte;
+
+    public ModeloListaCaracteres(ReporteCaracteres reporte) {
+        this.reporte = reporte;
+    }
+
+    @Override
+    public int getSize() {
+        return reporte.cantidad();
+    }
+
+    @Override
+    public String getElementAt(int indice) {
+        return ClasificadorCaracteres.linea(reporte, indice);
+    }
+
+    // Fila más ancha posible, para fijar el ancho de celda sin medir todas las filas
+    public String getPrototipo() {
+        String mayorClase = "";
+        for (byte clase = 0; clase < ClasificadorCaracteres.cantidadDeClases(); clase++) {
+            String nombre = ClasificadorCaracteres.nombre(clase);
+            if (nombre.length() > mayorClase.length()) {
+                mayorClase = nombre;
+            }
+        }
+        int ultima = reporte.cantidad() == 0 ? 0 : reporte.posicion(reporte.cantidad() - 1);
+        return "Posición " + String.format("%3d", ultima) + ": 'W' (" + mayorClase + ")";
+    }
+}
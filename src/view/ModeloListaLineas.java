@@ -0,0 +1,62 @@
+import javax.swing.AbstractListModel;
+import java.util.Arrays;
+
+/**
+ * Modelo de JList sobre un texto ya generado (por ejemplo, el reporte agrupado).
+ * Solo se indexa dónde empieza cada línea; el texto de una fila se extrae al mostrarla.
+ */
+public class ModeloListaLineas extends AbstractListModel<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final String texto;
+    private int[] inicios;
+    private int cantidad;
+    private int lineaMasLarga;
+
+    public ModeloListaLineas(String texto) {
+        this.texto = texto;
+        indexar();
+    }
+
+    private void indexar() {
+        inicios = new int[64];
+        int inicio = 0;
+        int largoMaximo = -1;
+        int n = texto.length();
+        while (inicio < n) {
+            int fin = texto.indexOf('\n', inicio);
+            if (fin == -1) {
+                fin = n;
+            }
+            if (cantidad == inicios.length) {
+                inicios = Arrays.copyOf(inicios, cantidad * 2);
+            }
+            if (fin - inicio > largoMaximo) {
+                largoMaximo = fin - inicio;
+                lineaMasLarga = cantidad;
+            }
+            inicios[cantidad++] = inicio;
+            inicio = fin + 1;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return cantidad;
+    }
+
+    @Override
+    public String getElementAt(int indice) {
+        int inicio = inicios[indice];
+        int fin = indice + 1 < cantidad ? inicios[indice + 1] - 1 : texto.length();
+        if (fin > inicio && texto.charAt(fin - 1) == '\n') {
+            fin--;
+        }
+        return texto.substring(inicio, fin);
+    }
+
+    // La línea más larga, para fijar el ancho de celda sin medir todas las filas
+    public String getPrototipo() {
+        return cantidad == 0 ? "" : getElementAt(lineaMasLarga);
+    }
+}